@@ -5,6 +5,7 @@ import java.awt.Component;
 import java.awt.Container;
 import java.awt.Dimension;
 import java.awt.LayoutManager;
+import java.util.concurrent.Executor;
 
 import javax.swing.JPanel;
 
@@ -56,6 +57,21 @@ public class HSLPanel extends JPanel
 		return this.mComp.getLuminance();
 	}
 	
+	/**
+	 * Sets hue, saturation and luminance from an RGB color at once, with a single colorChanged
+	 * notification and repaint.  The per-channel listener methods are not called.
+	 */
+	public void setColor(Color color)
+	{
+		this.mComp.setColor(color);
+		return;
+	}
+	
+	public Color getColor()
+	{
+		return this.mComp.getColor();
+	}
+	
 	@Override
 	public void setBackground(Color color)
 	{
@@ -96,6 +112,18 @@ public class HSLPanel extends JPanel
 		return this.mComp.getCaretShadow();
 	}
 	
+	public void setHueRingThicknessFactor(float factor)
+	{
+		this.mComp.setHueRingThicknessFactor(factor);
+		this.mComp.repaint();
+		return;
+	}
+	
+	public float getHueRingThicknessFactor()
+	{
+		return this.mComp.getHueRingThicknessFactor();
+	}
+	
 	public boolean getValueIsAdjusting()
 	{
 		return this.mComp.getValueIsAdjusting();
@@ -107,6 +135,12 @@ public class HSLPanel extends JPanel
 		return;
 	}
 	
+	public void addChangeListener(HSLPanelListener listener, Executor executor)
+	{
+		this.mComp.addChangeListener(listener, executor);
+		return;
+	}
+	
 	public void removeChangeListener(HSLPanelListener listener)
 	{
 		this.mComp.removeChangeListener(listener);
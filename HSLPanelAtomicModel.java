@@ -0,0 +1,100 @@
+package main.gui.custom;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Thread-safe HSLPanelModel.
+ * 
+ * The color is held as one immutable Snapshot behind an AtomicReference, so a reader always sees the
+ * hue, saturation and luminance of a single update, and every update replaces the snapshot with a
+ * compare-and-set that bumps the version.  Writers on other threads may therefore update the color
+ * while the event dispatch thread is painting it.
+ */
+public class HSLPanelAtomicModel extends HSLPanelModel
+{
+	private final AtomicReference<Snapshot> mState = new AtomicReference<Snapshot>(new Snapshot(0F, 0F, 0F, 0L));
+	
+	@Override
+	public void setCurrentHue(float value)
+	{
+		Snapshot current;
+		do{
+			current = this.mState.get();
+		}while(!this.mState.compareAndSet(current, new Snapshot(value, current.getSat(), current.getLum(), current.getVersion() + 1)));
+		return;
+	}
+	
+	@Override
+	public float getCurrentHue()
+	{
+		return this.mState.get().getHue();
+	}
+	
+	@Override
+	public void setCurrentSat(float value)
+	{
+		Snapshot current;
+		do{
+			current = this.mState.get();
+		}while(!this.mState.compareAndSet(current, new Snapshot(current.getHue(), value, current.getLum(), current.getVersion() + 1)));
+		return;
+	}
+	
+	@Override
+	public float getCurrentSat()
+	{
+		return this.mState.get().getSat();
+	}
+	
+	@Override
+	public void setCurrentLum(float value)
+	{
+		Snapshot current;
+		do{
+			current = this.mState.get();
+		}while(!this.mState.compareAndSet(current, new Snapshot(current.getHue(), current.getSat(), value, current.getVersion() + 1)));
+		return;
+	}
+	
+	@Override
+	public float getCurrentLum()
+	{
+		return this.mState.get().getLum();
+	}
+	
+	@Override
+	public void setCurrent(float hue, float sat, float lum)
+	{
+		Snapshot current;
+		do{
+			current = this.mState.get();
+		}while(!this.mState.compareAndSet(current, new Snapshot(hue, sat, lum, current.getVersion() + 1)));
+		return;
+	}
+	
+	@Override
+	public long getVersion()
+	{
+		return this.mState.get().getVersion();
+	}
+	
+	@Override
+	public Snapshot getSnapshot()
+	{
+		return this.mState.get();
+	}
+	
+	/**
+	 * Sets the color only if no update happened since expected was read.  Snapshots are compared by
+	 * version, so a snapshot built by hand with the current version also matches.
+	 */
+	@Override
+	public boolean compareAndSet(Snapshot expected, float hue, float sat, float lum)
+	{
+		Snapshot current = this.mState.get();
+		if(current.getVersion() != expected.getVersion()){
+			return false;
+		}
+		return this.mState.compareAndSet(current, new Snapshot(hue, sat, lum, current.getVersion() + 1));
+	}
+}
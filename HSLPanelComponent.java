@@ -1,72 +1,95 @@
 package main.gui.custom;
 
-import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Cursor;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
-import java.awt.geom.Ellipse2D;
-import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
 
-import java.util.Vector;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.UIManager;
 
 @SuppressWarnings("serial")
 public class HSLPanelComponent extends JPanel
 {
-	private static final int BORDER_SPACE = 1;
-	private static final int BORDER_THICKNESS = 1;
-	private static final float[] CONE_FRACTIONS = new float[]{0.083333F,
-																0.166666F,
-																0.25F,
-																0.333333F,
-																0.416666F,
-																0.5F,
-																0.583333F,
-																0.666666F,
-																0.75F,
-																0.833333F,
-																0.916666F,
-																1.0F};
-	
-	private static final Color[] CONE_COLORS = new Color[]{new Color(255, 255,   0, 255),
-															new Color(255, 128,   0, 255),
-															new Color(255,   0,   0, 255),
-															new Color(255,   0, 128, 255),
-															new Color(255,   0, 255, 255),
-															new Color(128,   0, 255, 255),
-															new Color(  0,   0, 255, 255),
-															new Color(  0, 128, 255, 255),
-															new Color(  0, 255, 255, 255),
-															new Color(  0, 255, 128, 255),
-															new Color(  0, 255,   0, 255),
-															new Color(128, 255,   0, 255)};
-	private static final float RING_THICKNESS_FACTOR = 0.11F;
-	private static final int DEFAULT_BACKGROUND = UIManager.getColor("Panel.background").getRGB();
-	private static final int DEFAULT_CARET_HIGHLIGHT = 0xFFFFFF;
-	private static final int DEFAULT_CARET_SHADOW = 0x000000;
+	private static final Color DEFAULT_BACKGROUND = new Color(UIManager.getColor("Panel.background").getRGB() & 0xFFFFFF);
+	private static final int DEFAULT_PARALLEL_THRESHOLD = 512 * 512;
+	private static final BooleanSupplier NEVER_CANCELLED = () -> false;
+	private static final int MAX_PREVIEW_DOWNSCALE = 8;
+	private static final long PREVIEW_BUDGET_NANOS = 4000000L;
+	private static final int REFINE_DELAY = 150;
+	private static final int HOVER_RADIUS = 5;
 	
 	protected Rectangle mSLBounds = new Rectangle();
 	protected HSLPanelModel mModel = new HSLPanelModel();
-	private int mBackground = DEFAULT_BACKGROUND;
-	private int mCaretHighlight = DEFAULT_CARET_HIGHLIGHT;
-	private int mCaretShadow = DEFAULT_CARET_SHADOW;
-	private BasicStroke mBottomStroke = new BasicStroke(2f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
-	private BasicStroke mTopStroke = new BasicStroke(1.25f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
-	private float mRingThickness = RING_THICKNESS_FACTOR;
+	private HSLPanelRasterEngine mEngine = new HSLPanelRasterEngine(this.mModel);
+	private HSLPanelStyle mStyle = HSLPanelStyle.DEFAULT.withBackground(DEFAULT_BACKGROUND);
+	private HSLPanelGeometry mGeometry = new HSLPanelGeometry(0, 0, this.mStyle.getRingThickness());
+	private HSLPanelGeometry mCaretGeometry = null;
+	private long mCaretVersion = 0L;
+	private Point mHueCaret = null;
+	private Point mSLCaret = null;
 	private Cursor mNormalCursor = new Cursor(Cursor.DEFAULT_CURSOR);
 	private Cursor mHoverCursor = new Cursor(Cursor.HAND_CURSOR);
 	private boolean mHueGripped = false;
 	private boolean mSLGripped = false;
-	private Vector<HSLPanelListener> mListeners = new Vector<HSLPanelListener>();
+	private HSLPanelListenerRegistry mListeners = new HSLPanelListenerRegistry();
+	private HashMap<Double, BufferedImage> mRingImages = new HashMap<Double, BufferedImage>();
+	private int mRingLayerWidth = 0;
+	private int mRingLayerHeight = 0;
+	private double mPaintScale = 1.0;
+	private double mSLImageScale = 1.0;
+	private HashMap<Double, ScaledSLImage> mSLScaledImages = new HashMap<Double, ScaledSLImage>();
+	private BufferedImage mSLImage = null;
+	private float mSLImageHue = Float.NaN;
+	private int mSLImageGeneration = 0;
+	private BufferedImage mSLSpareImage = null;
+	private boolean mAsyncSLRendering = false;
+	private ExecutorService mSLRenderExecutor = null;
+	private Future<?> mSLRenderFuture = null;
+	private float mSLRequestedHue = Float.NaN;
+	private final AtomicInteger mSLGeneration = new AtomicInteger();
+	private boolean mProgressiveRendering = false;
+	private int mPreviewDownscale = 0;
+	private BufferedImage mSLPreviewImage = null;
+	private float mSLPreviewHue = Float.NaN;
+	private boolean mSLPreviewShown = false;
+	private boolean mPointerIdle = false;
+	private Timer mRefineTimer = null;
+	private volatile double mSLNanosPerPixel = 0.0;
+	private ForkJoinPool mRenderPool = ForkJoinPool.commonPool();
+	private boolean mOwnsRenderPool = false;
+	private int mParallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+	private boolean mBatchingUpdates = false;
+	private float mNotifiedHue = Float.NaN;
+	private float mNotifiedSat = Float.NaN;
+	private float mNotifiedLum = Float.NaN;
+	private boolean mNotifiedAdjusting = false;
+	private float mDragStartHue = Float.NaN;
+	private float mDragStartSat = Float.NaN;
+	private float mDragStartLum = Float.NaN;
+	private Timer mCoalesceTimer = null;
+	private HSLPanelMetrics mMetrics = null;
+	private StringBuilder mRegeneratedLayers = new StringBuilder();
+	private final float[] mColorHSL = new float[3];
 	
 	public HSLPanelComponent()
 	{
@@ -79,116 +102,502 @@ public class HSLPanelComponent extends JPanel
 	public void doLayout()
 	{
 		super.doLayout();
-		this.mSLBounds.width = (int)Math.round(this.getWidth() / 2.0);
-		this.mSLBounds.height = (int)Math.round(this.getHeight() / 2.0);
-		this.mSLBounds.x = (int)Math.round((this.getWidth() - this.mSLBounds.width) / 2.0);
-		this.mSLBounds.y = (int)Math.round((this.getHeight() - this.mSLBounds.height) / 2.0);
+		if(this.mRingLayerWidth != this.getWidth() || this.mRingLayerHeight != this.getHeight()){
+			this.mRingImages.clear();
+			this.mSLScaledImages.clear();
+			this.mRingLayerWidth = this.getWidth();
+			this.mRingLayerHeight = this.getHeight();
+		}
+		if(this.mGeometry.getWidth() != this.getWidth() || this.mGeometry.getHeight() != this.getHeight()){
+			this.updateGeometry();
+		}
+		return;
+	}
+	
+	/**
+	 * Replaces the layout geometry after a change of size or ring thickness.  Painting, hit testing
+	 * and the cached caret positions all read from it.
+	 */
+	private void updateGeometry()
+	{
+		this.mGeometry = new HSLPanelGeometry(this.getWidth(), this.getHeight(), this.mStyle.getRingThickness());
+		this.mSLBounds.setBounds(this.mGeometry.getSLBounds());
+		return;
+	}
+	
+	/**
+	 * Recomputes the caret positions if the model has been updated or the geometry replaced since
+	 * they were last computed, so pointer moves and repaints that change nothing skip the
+	 * trigonometry.
+	 */
+	private void validateCarets()
+	{
+		if(this.mModel.getVersion() != this.mCaretVersion || this.mGeometry != this.mCaretGeometry){
+			this.validateCarets(this.mModel.getSnapshot());
+		}
+		return;
+	}
+	
+	private void validateCarets(HSLPanelModel.Snapshot state)
+	{
+		if(state.getVersion() == this.mCaretVersion && this.mGeometry == this.mCaretGeometry){
+			return;
+		}
+		this.mHueCaret = this.mGeometry.getHueCaretLocation(state.getHue());
+		this.mSLCaret = this.mGeometry.getSLCaretLocation(state.getSat(), state.getLum());
+		this.mCaretVersion = state.getVersion();
+		this.mCaretGeometry = this.mGeometry;
+		return;
+	}
+	
+	/**
+	 * Stops the SL render thread and shuts down the pool created by setRenderParallelism once the
+	 * component leaves its hierarchy, replacing it with an idle one of the same parallelism; a
+	 * ForkJoinPool starts no threads until it is used.  An external pool from setRenderPool is left
+	 * running.
+	 */
+	@Override
+	public void removeNotify()
+	{
+		super.removeNotify();
+		ForkJoinPool retired = null;
+		if(this.mOwnsRenderPool && this.mRenderPool != null){
+			retired = this.mRenderPool;
+			this.mRenderPool = new ForkJoinPool(retired.getParallelism());
+		}
+		this.stopSLRenderExecutor(retired);
 		return;
 	}
 	
 	@Override
 	public void paintComponent(Graphics g)
 	{
+		HSLPanelEvents.PaintEvent event = new HSLPanelEvents.PaintEvent();
+		event.begin();
+		this.mRegeneratedLayers.setLength(0);
+		long start = this.startStage();
 		super.paintComponent(g);
+		start = this.endStage(HSLPanelMetrics.STAGE_CLEAR, start);
 		Graphics2D g2d = (Graphics2D)g;
 		
-		float centerX = this.getWidth() / 2.0F;
-		float centerY = this.getHeight() / 2.0F;
-		int offset = BORDER_THICKNESS + BORDER_SPACE;
-		int thickness = (int)Math.round(this.mRingThickness * this.getWidth());
-		float radius = centerX - (offset + (thickness / 2.0F));
+		Rectangle clip = g2d.getClipBounds();
+		if(clip == null){
+			clip = new Rectangle(0, 0, this.getWidth(), this.getHeight());
+		}
 		g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-		this.renderBackground(g2d);
-		this.renderHueRing(g2d, centerX, centerY, offset, thickness);
-		this.renderSLGraph(g2d);
-		this.renderHueCaret(g2d, centerX, centerY, radius);
-		this.renderSLCaret(g2d);
+		this.mPaintScale = this.getDeviceScale(g2d);
+		this.renderRingLayer(g2d);
+		HSLPanelModel.Snapshot state = this.mModel.getSnapshot();
+		this.validateCarets(state);
+		if(clip.intersects(this.mSLBounds)){
+			start = this.startStage();
+			this.renderSLGraph(g2d, state.getHue());
+			this.endStage(HSLPanelMetrics.STAGE_SL_GRAPH, start);
+		}
+		if(clip.intersects(this.mEngine.getCaretBounds(this.mHueCaret))){
+			start = this.startStage();
+			this.mEngine.renderCaret(g2d, this.mHueCaret, this.mStyle);
+			this.endStage(HSLPanelMetrics.STAGE_HUE_CARET, start);
+		}
+		if(clip.intersects(this.mEngine.getCaretBounds(this.mSLCaret))){
+			start = this.startStage();
+			this.mEngine.renderCaret(g2d, this.mSLCaret, this.mStyle);
+			this.endStage(HSLPanelMetrics.STAGE_SL_CARET, start);
+		}
+		if(this.mMetrics != null){
+			this.mMetrics.recordRepaint();
+		}
+		event.end();
+		if(event.shouldCommit()){
+			event.width = this.getWidth();
+			event.height = this.getHeight();
+			event.clipX = clip.x;
+			event.clipY = clip.y;
+			event.clipWidth = clip.width;
+			event.clipHeight = clip.height;
+			event.scale = this.mPaintScale;
+			event.regeneratedLayers = this.mRegeneratedLayers.toString();
+			event.commit();
+		}
 		
 		g2d.dispose();
 		return;
 	}
 	
-	private void renderBackground(Graphics2D g2d)
+	private void markRegenerated(String layer)
 	{
-		g2d.setPaint(new Color((this.mBackground >> 16) & 0xff, (this.mBackground >> 8) & 0xff, this.mBackground & 0xff));
-		g2d.fillRect(0, 0, this.getWidth(), this.getHeight());
+		if(this.mRegeneratedLayers.length() > 0){
+			this.mRegeneratedLayers.append(',');
+		}
+		this.mRegeneratedLayers.append(layer);
 		return;
 	}
 	
-	private void renderHueRing(Graphics2D g2d, float centerX, float centerY, int offset, int thickness)
+	/**
+	 * Returns the start time of a paint stage, or 0 without reading the clock when no metrics are
+	 * being recorded.
+	 */
+	private long startStage()
 	{
-		Ellipse2D.Float cone = new Ellipse2D.Float(offset, offset, this.getWidth() - (offset * 2), this.getWidth() - (offset * 2));
-		Ellipse2D.Float clip = new Ellipse2D.Float(offset + thickness,
-													offset + thickness,
-													this.getWidth() - ((offset + thickness) * 2),
-													this.getWidth() - ((offset + thickness) * 2));
-		HSLPanelGradient gradient = new HSLPanelGradient(new Point2D.Double(centerX, centerY), CONE_FRACTIONS, CONE_COLORS);
-		g2d.setPaint(gradient);
-		g2d.fill(cone);
-		g2d.setPaint(new Color((this.mBackground >> 16) & 0xff, (this.mBackground >> 8) & 0xff, this.mBackground & 0xff));
-		g2d.fill(clip);
+		return this.mMetrics == null ? 0L : System.nanoTime();
+	}
+	
+	/**
+	 * Records a paint stage that began at start and returns the current time, so consecutive stages
+	 * can be chained.
+	 */
+	private long endStage(int stage, long start)
+	{
+		HSLPanelMetrics metrics = this.mMetrics;
+		if(metrics == null){
+			return 0L;
+		}
+		long now = System.nanoTime();
+		metrics.recordStage(stage, now - start);
+		return now;
+	}
+	
+	/**
+	 * Draws the background and hue ring from a cached layer.  The layer only depends on the component
+	 * size, the ring thickness and the background color, and is discarded by doLayout,
+	 * setHueRingThicknessFactor and setBackground when one of those actually changes.  It is rendered
+	 * at device resolution and kept per device scale, so moving between monitors with different
+	 * scales does not rebuild it.
+	 */
+	private void renderRingLayer(Graphics2D g2d)
+	{
+		if(this.getWidth() <= 0 || this.getHeight() <= 0){
+			return;
+		}
+		double scale = this.mPaintScale;
+		BufferedImage image = this.mRingImages.get(scale);
+		if(this.mMetrics != null){
+			this.mMetrics.recordRingCache(image != null);
+		}
+		if(image == null){
+			image = new BufferedImage(this.toDevice(this.getWidth(), scale), this.toDevice(this.getHeight(), scale), BufferedImage.TYPE_INT_RGB);
+			Graphics2D layer = image.createGraphics();
+			layer.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			layer.scale(scale, scale);
+			long start = this.startStage();
+			this.mEngine.renderBackground(layer, this.getWidth(), this.getHeight(), this.mStyle);
+			this.mEngine.renderHueRing(layer, this.mGeometry, this.mStyle);
+			this.endStage(HSLPanelMetrics.STAGE_RING_LAYER_BUILD, start);
+			layer.dispose();
+			this.mRingImages.put(scale, image);
+			this.markRegenerated(HSLPanelEvents.LAYER_RING);
+		}
+		long start = this.startStage();
+		g2d.drawImage(image, 0, 0, this.getWidth(), this.getHeight(), null);
+		this.endStage(HSLPanelMetrics.STAGE_RING_LAYER, start);
 		return;
 	}
 	
+	/**
+	 * Returns the scale from user space to device pixels of the given graphics, 1.0 on regular
+	 * displays and for instance 2.0 on a display scaled at 200%.
+	 */
+	private double getDeviceScale(Graphics2D g2d)
+	{
+		double scale = Math.abs(g2d.getTransform().getScaleX());
+		return scale > 0.0 ? scale : 1.0;
+	}
+	
+	private int toDevice(int size, double scale)
+	{
+		return Math.max(1, (int)Math.ceil(size * scale - 0.001));
+	}
+	
+	/**
+	 * Draws the saturation/luminance graph from a cached image.  The image is written directly
+	 * through its DataBufferInt and only regenerated when the hue or the size of mSLBounds changes,
+	 * so repaints that only move a caret cost a single drawImage.
+	 */
 	protected void renderSLGraph(Graphics2D g2d)
 	{
-		for(int y = 0; y < this.mSLBounds.height; y++)
+		this.renderSLGraph(g2d, this.mModel.getCurrentHue());
+		return;
+	}
+	
+	protected void renderSLGraph(Graphics2D g2d, float hue)
+	{
+		if(this.mSLBounds.width <= 0 || this.mSLBounds.height <= 0){
+			return;
+		}
+		this.mSLPreviewShown = false;
+		if(this.mProgressiveRendering && this.mHueGripped && !this.mPointerIdle && this.mSLImage != null && Float.compare(hue, this.mSLImageHue) != 0){
+			int factor = this.getEffectivePreviewDownscale();
+			if(factor > 1){
+				this.renderSLPreview(g2d, hue, factor);
+				return;
+			}
+		}
+		if(this.mPaintScale != this.mSLImageScale){
+			this.switchSLImageScale(this.mPaintScale);
+		}
+		int width = this.toDevice(this.mSLBounds.width, this.mSLImageScale);
+		int height = this.toDevice(this.mSLBounds.height, this.mSLImageScale);
+		if(this.mMetrics != null){
+			this.mMetrics.recordSLCache(this.mSLImage != null && this.mSLImage.getWidth() == width && this.mSLImage.getHeight() == height && Float.compare(hue, this.mSLImageHue) == 0);
+		}
+		if(this.mSLImage == null || this.mSLImage.getWidth() != width || this.mSLImage.getHeight() != height){
+			this.mSLImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			this.mSLSpareImage = null;
+			this.mSLRequestedHue = Float.NaN;
+			this.fillSLImage(this.mSLImage, hue, this.mEngine, this.mRenderPool, this.mParallelThreshold, NEVER_CANCELLED);
+			this.mSLImageHue = hue;
+			this.mSLImageGeneration = this.mSLGeneration.incrementAndGet();
+			this.markRegenerated(HSLPanelEvents.LAYER_SL);
+		}else if(Float.compare(hue, this.mSLImageHue) != 0){
+			if(this.mAsyncSLRendering){
+				this.requestSLImage(hue);
+			}else{
+				this.fillSLImage(this.mSLImage, hue, this.mEngine, this.mRenderPool, this.mParallelThreshold, NEVER_CANCELLED);
+				this.mSLImageHue = hue;
+				this.mSLImageGeneration = this.mSLGeneration.incrementAndGet();
+				this.markRegenerated(HSLPanelEvents.LAYER_SL);
+			}
+		}
+		g2d.drawImage(this.mSLImage, this.mSLBounds.x, this.mSLBounds.y, this.mSLBounds.width, this.mSLBounds.height, null);
+		return;
+	}
+	
+	/**
+	 * Keeps the SL image of the current device scale aside and brings back the one last rendered for
+	 * the new scale, if any.  Renders still in flight for the old scale are cancelled.
+	 */
+	private void switchSLImageScale(double scale)
+	{
+		if(this.mSLImage != null){
+			this.mSLScaledImages.put(this.mSLImageScale, new ScaledSLImage(this.mSLImage, this.mSLImageHue));
+		}
+		ScaledSLImage restored = this.mSLScaledImages.remove(scale);
+		this.mSLImage = restored == null ? null : restored.mImage;
+		this.mSLImageHue = restored == null ? Float.NaN : restored.mHue;
+		this.mSLImageGeneration = this.mSLGeneration.incrementAndGet();
+		this.mSLSpareImage = null;
+		this.mSLRequestedHue = Float.NaN;
+		this.mSLImageScale = scale;
+		return;
+	}
+	
+	/**
+	 * Draws the SL graph rendered at 1/factor of its size and scaled up, used while the hue is being
+	 * dragged.  The full resolution graph replaces it once the drag ends or the pointer rests.
+	 */
+	private void renderSLPreview(Graphics2D g2d, float hue, int factor)
+	{
+		int width = (this.toDevice(this.mSLBounds.width, this.mPaintScale) + factor - 1) / factor;
+		int height = (this.toDevice(this.mSLBounds.height, this.mPaintScale) + factor - 1) / factor;
+		if(this.mSLPreviewImage == null || this.mSLPreviewImage.getWidth() != width || this.mSLPreviewImage.getHeight() != height){
+			this.mSLPreviewImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			this.mSLPreviewHue = Float.NaN;
+		}
+		if(Float.compare(hue, this.mSLPreviewHue) != 0){
+			this.fillSLImage(this.mSLPreviewImage, hue, this.mEngine, this.mRenderPool, this.mParallelThreshold, NEVER_CANCELLED);
+			this.mSLPreviewHue = hue;
+			this.markRegenerated(HSLPanelEvents.LAYER_SL_PREVIEW);
+		}
+		Object interpolation = g2d.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+		g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		g2d.drawImage(this.mSLPreviewImage, this.mSLBounds.x, this.mSLBounds.y, this.mSLBounds.width, this.mSLBounds.height, null);
+		g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation != null ? interpolation : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+		this.mSLPreviewShown = true;
+		return;
+	}
+	
+	/**
+	 * Returns the configured preview downscale factor or, in adaptive mode, the smallest of 1, 2, 4
+	 * and 8 whose estimated render time, based on the measured cost per pixel, fits the preview budget.
+	 */
+	private int getEffectivePreviewDownscale()
+	{
+		if(this.mPreviewDownscale > 0){
+			return this.mPreviewDownscale;
+		}
+		double pixels = (double)this.toDevice(this.mSLBounds.width, this.mPaintScale) * this.toDevice(this.mSLBounds.height, this.mPaintScale);
+		int factor = 1;
+		while(factor < MAX_PREVIEW_DOWNSCALE && (this.mSLNanosPerPixel * pixels) / (factor * factor) > PREVIEW_BUDGET_NANOS)
 		{
-			for(int x = 0; x < this.mSLBounds.width; x++)
-			{
-				float hue = mModel.getCurrentHue();
-				float sat = x / (float)this.mSLBounds.width;
-				float lum = y / (float)this.mSLBounds.height;
-				g2d.setPaint(mModel.getRGBfromHSL(hue, sat, lum));
-				g2d.fillRect(this.mSLBounds.x + x, this.mSLBounds.y + y, 1, 1);
+			factor *= 2;
+		}
+		return factor;
+	}
+	
+	/**
+	 * Called for every hue drag event; the graph is refined to full resolution once the pointer has
+	 * not moved for REFINE_DELAY milliseconds.
+	 */
+	private void restartRefineTimer()
+	{
+		this.mPointerIdle = false;
+		if(this.mRefineTimer == null){
+			this.mRefineTimer = new Timer(REFINE_DELAY, e -> {
+				this.mPointerIdle = true;
+				if(this.mSLPreviewShown){
+					this.repaint(this.mSLBounds);
+				}
+			});
+			this.mRefineTimer.setRepeats(false);
+		}
+		this.mRefineTimer.restart();
+		return;
+	}
+	
+	/**
+	 * Starts rendering the SL graph for the given hue into the back buffer on the render thread,
+	 * cancelling any render still in flight for an older hue.  The front buffer keeps being drawn
+	 * until swapSLImage replaces it on the event dispatch thread.
+	 */
+	private void requestSLImage(float hue)
+	{
+		if(Float.compare(hue, this.mSLRequestedHue) == 0){
+			return;
+		}
+		int generation = this.mSLGeneration.incrementAndGet();
+		if(this.mSLRenderFuture != null){
+			this.mSLRenderFuture.cancel(false);
+		}
+		BufferedImage target = this.mSLSpareImage;
+		if(target == null || target.getWidth() != this.mSLImage.getWidth() || target.getHeight() != this.mSLImage.getHeight()){
+			target = new BufferedImage(this.mSLImage.getWidth(), this.mSLImage.getHeight(), BufferedImage.TYPE_INT_RGB);
+		}
+		this.mSLSpareImage = null;
+		this.mSLRequestedHue = hue;
+		final BufferedImage image = target;
+		HSLPanelRasterEngine engine = this.mEngine;
+		ForkJoinPool pool = this.mRenderPool;
+		int threshold = this.mParallelThreshold;
+		BooleanSupplier cancelled = () -> this.mSLGeneration.get() != generation;
+		this.mSLRenderFuture = this.getSLRenderExecutor().submit(() -> {
+			boolean complete = this.fillSLImage(image, hue, engine, pool, threshold, cancelled);
+			SwingUtilities.invokeLater(() -> this.swapSLImage(image, hue, generation, complete));
+		});
+		return;
+	}
+	
+	private void swapSLImage(BufferedImage image, float hue, int generation, boolean complete)
+	{
+		boolean fits = this.mSLImage != null && image.getWidth() == this.mSLImage.getWidth() && image.getHeight() == this.mSLImage.getHeight();
+		if(!complete || !fits || generation < this.mSLImageGeneration){
+			if(fits && this.mSLSpareImage == null){
+				this.mSLSpareImage = image;
+			}
+			if(generation == this.mSLGeneration.get()){
+				this.mSLRequestedHue = Float.NaN;
 			}
+			return;
 		}
+		this.mSLSpareImage = this.mSLImage;
+		this.mSLImage = image;
+		this.mSLImageHue = hue;
+		this.mSLImageGeneration = generation;
+		if(generation == this.mSLGeneration.get()){
+			this.mSLRequestedHue = Float.NaN;
+		}
+		this.repaint(this.mSLBounds);
 		return;
 	}
 	
-	private void renderHueCaret(Graphics2D g2d, float centerX, float centerY, float radius)
+	private void invalidateSLImage()
 	{
-		float dirX = (float)Math.cos(mModel.getCurrentHue() * HSLPanelModel.PI2);
-		float dirY = -(float)Math.sin(mModel.getCurrentHue() * HSLPanelModel.PI2);
-		int x = (int)Math.round(centerX + (dirX * radius));
-		int y = (int)Math.round(centerY + (dirY * radius));
-		g2d.setStroke(mBottomStroke);
-		g2d.setPaint(new Color((this.mCaretHighlight >> 16) & 0xff, (this.mCaretHighlight >> 8) & 0xff, this.mCaretHighlight & 0xff));
-		g2d.drawOval(x - 5, y - 5, 10, 10);
-		g2d.setStroke(mTopStroke);
-		g2d.setPaint(new Color((this.mCaretShadow >> 16) & 0xff, (this.mCaretShadow >> 8) & 0xff, this.mCaretShadow & 0xff));
-		g2d.drawOval(x - 4, y - 4, 8, 8);
+		this.mSLImageHue = Float.NaN;
+		this.mSLRequestedHue = Float.NaN;
 		return;
 	}
 	
-	private void renderSLCaret(Graphics2D g2d)
+	private ExecutorService getSLRenderExecutor()
 	{
-		int x = this.mSLBounds.x + (int)Math.round(mModel.getCurrentSat() * (float)this.mSLBounds.width);
-		int y = this.mSLBounds.y + (int)Math.round(mModel.getCurrentLum() * (float)this.mSLBounds.height);
-		
-		//System.out.println(x + ", " + y + ", " + mModel.getCurrentSat() + ", " + mModel.getCurrentLum());
-		
-		g2d.setStroke(mBottomStroke);
-		g2d.setPaint(new Color((this.mCaretHighlight >> 16) & 0xff, (this.mCaretHighlight >> 8) & 0xff, this.mCaretHighlight & 0xff));
-		g2d.drawOval(x - 5, y - 5, 10, 10);
-		g2d.setStroke(mTopStroke);
-		g2d.setPaint(new Color((this.mCaretShadow >> 16) & 0xff, (this.mCaretShadow >> 8) & 0xff, this.mCaretShadow & 0xff));
-		g2d.drawOval(x - 4, y - 4, 8, 8);
+		if(this.mSLRenderExecutor == null){
+			this.mSLRenderExecutor = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, "HSLPanel SL renderer");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return this.mSLRenderExecutor;
+	}
+	
+	/**
+	 * Cancels any render in flight and lets the render thread exit.  A pool to shut down is queued
+	 * behind that render, so it is never shut down while still in use.
+	 */
+	private void stopSLRenderExecutor(ForkJoinPool pool)
+	{
+		if(this.mSLRenderExecutor == null){
+			if(pool != null){
+				pool.shutdown();
+			}
+			return;
+		}
+		this.mSLGeneration.incrementAndGet();
+		if(pool != null){
+			this.mSLRenderExecutor.execute(pool::shutdown);
+		}
+		this.mSLRenderExecutor.shutdown();
+		this.mSLRenderExecutor = null;
+		this.mSLRenderFuture = null;
+		this.mSLRequestedHue = Float.NaN;
+		return;
+	}
+	
+	/**
+	 * Fills the image with the SL graph for the given hue and returns true, or returns false as soon
+	 * as cancelled reports true, leaving the image partially written.  The engine, pool and threshold
+	 * are read on the event dispatch thread by the caller, so a render thread never reads the
+	 * component's fields.
+	 */
+	private boolean fillSLImage(BufferedImage image, float hue, HSLPanelRasterEngine engine, ForkJoinPool pool, int threshold, BooleanSupplier cancelled)
+	{
+		long start = System.nanoTime();
+		if(!engine.fillSLGraph(image, hue, pool, threshold, cancelled)){
+			return false;
+		}
+		this.mSLNanosPerPixel = (System.nanoTime() - start) / ((double)image.getWidth() * image.getHeight());
+		return true;
+	}
+	
+	/**
+	 * Returns the area covered by the hue caret, including its stroke and antialiasing.
+	 */
+	protected Rectangle getHueCaretBounds()
+	{
+		this.validateCarets();
+		return this.mEngine.getCaretBounds(this.mHueCaret);
+	}
+	
+	/**
+	 * Returns the area covered by the saturation/luminance caret, including its stroke and antialiasing.
+	 */
+	protected Rectangle getSLCaretBounds()
+	{
+		this.validateCarets();
+		return this.mEngine.getCaretBounds(this.mSLCaret);
+	}
+	
+	/**
+	 * Repaints what a model update made stale: the old and new SL caret when only saturation or
+	 * luminance changed, plus the SL graph and both hue caret positions when the hue changed.
+	 */
+	private void repaintChanges(float previousHue, Rectangle previousHueCaret, Rectangle previousSLCaret)
+	{
+		Rectangle dirty = previousSLCaret.union(this.getSLCaretBounds());
+		if(Float.compare(previousHue, this.mModel.getCurrentHue()) != 0){
+			dirty = dirty.union(this.mSLBounds).union(previousHueCaret).union(this.getHueCaretBounds());
+		}
+		this.repaint(dirty);
 		return;
 	}
 	
 	public void setHue(int x, int y)
 	{
-		float angle = Math.abs(this.norm(this.getAngle((float)this.getBounds().getCenterX(), (float)this.getBounds().getCenterY(), x, y)));
-		this.mModel.setCurrentHue(angle / HSLPanelModel.PI2);
-		this.notifyAllHueChanged();
+		this.updateHue(this.mGeometry.getHueAt(x, y));
 		return;
 	}
 	
 	public void setHue(float hue)
 	{
-		this.mModel.setCurrentHue(hue);
-		this.notifyAllHueChanged();
+		this.updateHue(hue);
 		return;
 	}
 	
@@ -200,8 +609,7 @@ public class HSLPanelComponent extends JPanel
 	public void setSaturation(int x)
 	{
 		x = this.mModel.clamp(this.mSLBounds.x, this.mSLBounds.x + this.mSLBounds.width, x);
-		this.mModel.setCurrentSat((x - this.mSLBounds.x) / (float)this.mSLBounds.width);
-		this.notifyAllSatChanged();
+		this.updateSat((x - this.mSLBounds.x) / (float)this.mSLBounds.width);
 		return;
 	}
 	
@@ -210,8 +618,7 @@ public class HSLPanelComponent extends JPanel
 		if(saturation < 0F || saturation > 1F){
 			throw new IllegalArgumentException("Expecting normalized value.  Received: " + saturation);
 		}
-		this.mModel.setCurrentSat(saturation);
-		this.notifyAllSatChanged();
+		this.updateSat(saturation);
 		return;
 	}
 	
@@ -223,8 +630,7 @@ public class HSLPanelComponent extends JPanel
 	public void setLuminance(int y)
 	{
 		y = this.mModel.clamp(this.mSLBounds.y, this.mSLBounds.y + this.mSLBounds.height, y);
-		this.mModel.setCurrentLum((y - this.mSLBounds.y) / (float)this.mSLBounds.height);
-		this.notifyAllLumChanged();
+		this.updateLum((y - this.mSLBounds.y) / (float)this.mSLBounds.height);
 		return;
 	}
 	
@@ -233,8 +639,7 @@ public class HSLPanelComponent extends JPanel
 		if(luminance < 0F || luminance > 1F){
 			throw new IllegalArgumentException("Expecting normalized value.  Received: " + luminance);
 		}
-		this.mModel.setCurrentLum(luminance);
-		this.notifyAllLumChanged();
+		this.updateLum(luminance);
 		return;
 	}
 	
@@ -243,6 +648,88 @@ public class HSLPanelComponent extends JPanel
 		return this.mModel.getCurrentLum();
 	}
 	
+	/**
+	 * Sets hue, saturation and luminance from an RGB color as a single update: colorChanged is the
+	 * only notification, delivered once, and only the areas that moved are repainted.  The
+	 * per-channel methods are not called.  Grays have no hue, so the current one is kept for them.
+	 */
+	public void setColor(Color color)
+	{
+		if(color == null){
+			throw new IllegalArgumentException("Expecting a color.");
+		}
+		float[] hsl = this.mColorHSL;
+		this.mModel.getHSLfromPackedRGB(color.getRGB(), hsl, 0);
+		HSLPanelModel.Snapshot previous = this.mModel.getSnapshot();
+		float hue = hsl[1] == 0F ? previous.getHue() : hsl[0];
+		if(Float.compare(hue, previous.getHue()) == 0 && Float.compare(hsl[1], previous.getSat()) == 0 &&
+				Float.compare(hsl[2], previous.getLum()) == 0){
+			return;
+		}
+		Rectangle previousHueCaret = this.getHueCaretBounds();
+		Rectangle previousSLCaret = this.getSLCaretBounds();
+		this.mModel.setCurrent(hue, hsl[1], hsl[2]);
+		this.fireColorChanged();
+		this.repaintChanges(previous.getHue(), previousHueCaret, previousSLCaret);
+		return;
+	}
+	
+	public Color getColor()
+	{
+		HSLPanelModel.Snapshot state = this.mModel.getSnapshot();
+		return this.mModel.getRGBfromHSL(state.getHue(), state.getSat(), state.getLum());
+	}
+	
+	/**
+	 * Applies both coordinates of an SL graph point as a single update, so that colorChanged is only
+	 * notified once.
+	 */
+	public void setSaturationAndLuminance(int x, int y)
+	{
+		this.mBatchingUpdates = true;
+		try{
+			this.setSaturation(x);
+			this.setLuminance(y);
+		}finally{
+			this.mBatchingUpdates = false;
+		}
+		this.fireColorChanged();
+		return;
+	}
+	
+	private void updateHue(float hue)
+	{
+		if(Float.compare(hue, this.mModel.getCurrentHue()) == 0){
+			return;
+		}
+		this.mModel.setCurrentHue(hue);
+		this.notifyAllHueChanged();
+		this.fireColorChanged();
+		return;
+	}
+	
+	private void updateSat(float saturation)
+	{
+		if(Float.compare(saturation, this.mModel.getCurrentSat()) == 0){
+			return;
+		}
+		this.mModel.setCurrentSat(saturation);
+		this.notifyAllSatChanged();
+		this.fireColorChanged();
+		return;
+	}
+	
+	private void updateLum(float luminance)
+	{
+		if(Float.compare(luminance, this.mModel.getCurrentLum()) == 0){
+			return;
+		}
+		this.mModel.setCurrentLum(luminance);
+		this.notifyAllLumChanged();
+		this.fireColorChanged();
+		return;
+	}
+	
 	public float getAngle(float x1, float y1, float x2, float y2)
 	{
 		return (float)Math.atan2(-(y2 - y1), x2 - x1);
@@ -263,33 +750,67 @@ public class HSLPanelComponent extends JPanel
 	public void setBackground(Color color)
 	{
 		super.setBackground(color);
-		this.mBackground = color.getRed() << 16 | color.getGreen() << 8 | color.getBlue();
+		if(this.mStyle == null){
+			return;
+		}
+		HSLPanelStyle style = this.mStyle.withBackground(color);
+		if(!style.equals(this.mStyle)){
+			this.mStyle = style;
+			this.mRingImages.clear();
+		}
 	}
 	
 	@Override
 	public Color getBackground()
 	{
-		return new Color((this.mBackground >> 16) & 0xff, (this.mBackground >> 8) & 0xff, this.mBackground & 0xff);
+		return this.mStyle == null ? super.getBackground() : this.mStyle.getBackground();
 	}
 	
 	public void setCaretHighlight(Color color)
 	{
-		this.mCaretHighlight = color.getRed() << 16 | color.getGreen() << 8 | color.getBlue();
+		this.mStyle = this.mStyle.withCaretHighlight(color);
 	}
 	
 	public Color getCaretHighlight()
 	{
-		return new Color((this.mCaretHighlight >> 16) & 0xff, (this.mCaretHighlight >> 8) & 0xff, this.mCaretHighlight & 0xff);
+		return this.mStyle.getCaretHighlight();
 	}
 	
 	public void setCaretShadow(Color color)
 	{
-		this.mCaretShadow = color.getRed() << 16 | color.getGreen() << 8 | color.getBlue();
+		this.mStyle = this.mStyle.withCaretShadow(color);
 	}
 	
 	public Color getCaretShadow()
 	{
-		return new Color((this.mCaretShadow >> 16) & 0xff, (this.mCaretShadow >> 8) & 0xff, this.mCaretShadow & 0xff);
+		return this.mStyle.getCaretShadow();
+	}
+	
+	/**
+	 * Replaces the colors and ring thickness all at once.  The same style can be handed to an
+	 * HSLPanelRasterEngine to render matching images off screen.
+	 */
+	public void setStyle(HSLPanelStyle style)
+	{
+		if(style == null){
+			throw new IllegalArgumentException("Expecting a style.");
+		}
+		if(!style.getBackground().equals(this.mStyle.getBackground()) || style.getRingThickness() != this.mStyle.getRingThickness()){
+			this.mRingImages.clear();
+		}
+		boolean thicknessChanged = style.getRingThickness() != this.mStyle.getRingThickness();
+		super.setBackground(style.getBackground());
+		this.mStyle = style;
+		if(thicknessChanged){
+			this.updateGeometry();
+		}
+		this.repaint();
+		return;
+	}
+	
+	public HSLPanelStyle getStyle()
+	{
+		return this.mStyle;
 	}
 	
 	public void setHueRingThicknessFactor(float factor)
@@ -297,13 +818,209 @@ public class HSLPanelComponent extends JPanel
 		if(factor < 0F || factor > 1F){
 			throw new IllegalArgumentException("Expecting normalized value.  Received: " + factor);
 		}
-		this.mRingThickness = factor;
+		if(factor != this.mStyle.getRingThickness()){
+			this.mStyle = this.mStyle.withRingThickness(factor);
+			this.mRingImages.clear();
+			this.updateGeometry();
+		}
 		return;
 	}
 	
 	public float getHueRingThicknessFactor()
 	{
-		return this.mRingThickness;
+		return this.mStyle.getRingThickness();
+	}
+	
+	/**
+	 * Starts recording paint stage durations, repaint counts and cache hit rates into the given
+	 * metrics, which can then be read with getSnapshot or registered with JMX.  Pass null, the
+	 * default, to stop recording; painting then does not even read the clock.
+	 */
+	public void setMetrics(HSLPanelMetrics metrics)
+	{
+		this.mMetrics = metrics;
+		return;
+	}
+	
+	public HSLPanelMetrics getMetrics()
+	{
+		return this.mMetrics;
+	}
+	
+	/**
+	 * Renders the SL graph for a new hue on a background thread and swaps it in when complete, instead
+	 * of rendering it synchronously while painting.  Until then the previous graph stays on screen,
+	 * so the ring and carets remain responsive however long the render takes.
+	 */
+	public void setAsyncSLRendering(boolean async)
+	{
+		this.mAsyncSLRendering = async;
+		if(!async){
+			this.stopSLRenderExecutor(null);
+		}
+		return;
+	}
+	
+	public boolean getAsyncSLRendering()
+	{
+		return this.mAsyncSLRendering;
+	}
+	
+	/**
+	 * While the hue is being dragged, draws the SL graph at reduced resolution and refines it once the
+	 * drag ends or the pointer rests.
+	 */
+	public void setProgressiveRendering(boolean progressive)
+	{
+		this.mProgressiveRendering = progressive;
+		return;
+	}
+	
+	public boolean getProgressiveRendering()
+	{
+		return this.mProgressiveRendering;
+	}
+	
+	/**
+	 * Sets how much the progressive preview is scaled down in each direction.  0, the default, picks
+	 * the factor from the measured render cost so that a preview stays within a few milliseconds.
+	 */
+	public void setPreviewDownscale(int factor)
+	{
+		if(factor < 0 || factor > MAX_PREVIEW_DOWNSCALE){
+			throw new IllegalArgumentException("Expecting a factor between 0 and " + MAX_PREVIEW_DOWNSCALE + ".  Received: " + factor);
+		}
+		this.mPreviewDownscale = factor;
+		return;
+	}
+	
+	public int getPreviewDownscale()
+	{
+		return this.mPreviewDownscale;
+	}
+	
+	/**
+	 * Replaces the model holding the current color, for instance with an HSLPanelAtomicModel when the
+	 * color is also updated from other threads.  The lookup table and vectorization settings belong
+	 * to the model.
+	 */
+	public void setModel(HSLPanelModel model)
+	{
+		if(model == null){
+			throw new IllegalArgumentException("Expecting a model.");
+		}
+		this.mModel = model;
+		this.mEngine = new HSLPanelRasterEngine(model);
+		this.mCaretGeometry = null;
+		this.invalidateSLImage();
+		return;
+	}
+	
+	public HSLPanelModel getModel()
+	{
+		return this.mModel;
+	}
+	
+	/**
+	 * Renders the SL graph from a precomputed table once it has been built, or exactly when null.
+	 * See HSLPanelLookupTable for the memory used by each resolution.
+	 */
+	public void setLookupTable(HSLPanelLookupTable table)
+	{
+		this.mModel.setLookupTable(table);
+		this.invalidateSLImage();
+		return;
+	}
+	
+	public HSLPanelLookupTable getLookupTable()
+	{
+		return this.mModel.getLookupTable();
+	}
+	
+	/**
+	 * Sets the number of threads used to rasterize large SL graphs on a pool owned by this component.
+	 * A parallelism of 1 keeps rendering on the calling thread.
+	 */
+	public void setRenderParallelism(int parallelism)
+	{
+		if(parallelism < 1){
+			throw new IllegalArgumentException("Expecting a positive parallelism.  Received: " + parallelism);
+		}
+		this.setRenderPool(parallelism == 1 ? null : new ForkJoinPool(parallelism));
+		this.mOwnsRenderPool = parallelism != 1;
+		return;
+	}
+	
+	public int getRenderParallelism()
+	{
+		return this.mRenderPool == null ? 1 : this.mRenderPool.getParallelism();
+	}
+	
+	/**
+	 * Sets the pool used to rasterize large SL graphs in row bands, or null to always render on the
+	 * calling thread.  Defaults to the common pool.
+	 */
+	public void setRenderPool(ForkJoinPool pool)
+	{
+		if(this.mOwnsRenderPool && this.mRenderPool != null){
+			this.mRenderPool.shutdown();
+		}
+		this.mRenderPool = pool;
+		this.mOwnsRenderPool = false;
+		return;
+	}
+	
+	public ForkJoinPool getRenderPool()
+	{
+		return this.mRenderPool;
+	}
+	
+	/**
+	 * Sets the SL graph area, in pixels, below which rendering stays single-threaded.
+	 */
+	public void setParallelThreshold(int pixels)
+	{
+		if(pixels < 0){
+			throw new IllegalArgumentException("Expecting a non-negative pixel count.  Received: " + pixels);
+		}
+		this.mParallelThreshold = pixels;
+		return;
+	}
+	
+	public int getParallelThreshold()
+	{
+		return this.mParallelThreshold;
+	}
+	
+	/**
+	 * Limits colorChanged notifications during a drag to one per interval, delivering the latest
+	 * color when the interval elapses.  An interval of 0 delivers every change immediately.
+	 */
+	public void setColorChangeCoalescing(int milliseconds)
+	{
+		if(milliseconds < 0){
+			throw new IllegalArgumentException("Expecting a non-negative interval.  Received: " + milliseconds);
+		}
+		if(milliseconds == 0){
+			if(this.mCoalesceTimer != null){
+				this.mCoalesceTimer.stop();
+				this.mCoalesceTimer = null;
+			}
+			this.fireColorChanged();
+			return;
+		}
+		if(this.mCoalesceTimer == null){
+			this.mCoalesceTimer = new Timer(milliseconds, e -> this.notifyAllColorChanged());
+			this.mCoalesceTimer.setRepeats(false);
+		}else{
+			this.mCoalesceTimer.setInitialDelay(milliseconds);
+		}
+		return;
+	}
+	
+	public int getColorChangeCoalescing()
+	{
+		return this.mCoalesceTimer == null ? 0 : this.mCoalesceTimer.getInitialDelay();
 	}
 	
 	public boolean getValueIsAdjusting()
@@ -313,7 +1030,21 @@ public class HSLPanelComponent extends JPanel
 	
 	public void addChangeListener(HSLPanelListener listener)
 	{
-		this.mListeners.add(listener);
+		this.mListeners.add(listener, null);
+		return;
+	}
+	
+	/**
+	 * Registers a listener that is notified on the given executor rather than the event dispatch
+	 * thread.  Notifications that arrive while one is being delivered are merged, so a slow listener
+	 * only sees the latest values.
+	 */
+	public void addChangeListener(HSLPanelListener listener, Executor executor)
+	{
+		if(executor == null){
+			throw new IllegalArgumentException("Expecting an executor.");
+		}
+		this.mListeners.add(listener, executor);
 		return;
 	}
 	
@@ -323,29 +1054,114 @@ public class HSLPanelComponent extends JPanel
 		return;
 	}
 	
+	/**
+	 * Notifies colorChanged once the current update is complete, unless nothing changed since the
+	 * last notification.  During a drag with coalescing enabled, the notification is deferred to the
+	 * coalescing timer instead.
+	 */
+	protected void fireColorChanged()
+	{
+		if(this.mBatchingUpdates){
+			return;
+		}
+		if(this.getValueIsAdjusting() && this.mCoalesceTimer != null){
+			if(!this.mCoalesceTimer.isRunning()){
+				this.mCoalesceTimer.start();
+			}
+			return;
+		}
+		this.notifyAllColorChanged();
+		return;
+	}
+	
+	public void notifyAllColorChanged()
+	{
+		if(this.mCoalesceTimer != null){
+			this.mCoalesceTimer.stop();
+		}
+		HSLPanelModel.Snapshot state = this.mModel.getSnapshot();
+		float hue = state.getHue();
+		float sat = state.getSat();
+		float lum = state.getLum();
+		boolean adjusting = this.getValueIsAdjusting();
+		if(Float.compare(hue, this.mNotifiedHue) == 0 && Float.compare(sat, this.mNotifiedSat) == 0 &&
+				Float.compare(lum, this.mNotifiedLum) == 0 && adjusting == this.mNotifiedAdjusting){
+			return;
+		}
+		this.mNotifiedHue = hue;
+		this.mNotifiedSat = sat;
+		this.mNotifiedLum = lum;
+		this.mNotifiedAdjusting = adjusting;
+		HSLPanelEvents.DispatchEvent event = new HSLPanelEvents.DispatchEvent();
+		event.begin();
+		this.mListeners.fireColorChanged(hue, sat, lum, adjusting);
+		event.end();
+		if(event.shouldCommit()){
+			event.callback = "colorChanged";
+			event.value = hue;
+			event.listenerCount = this.mListeners.size();
+			event.commit();
+		}
+		return;
+	}
+	
 	public void notifyAllHueChanged()
 	{
-		for(HSLPanelListener listener : this.mListeners)
-		{
-			listener.hueChanged(this.mModel.getCurrentHue());
+		HSLPanelEvents.DispatchEvent event = new HSLPanelEvents.DispatchEvent();
+		float value = this.mModel.getCurrentHue();
+		event.begin();
+		this.mListeners.fireHueChanged(value);
+		event.end();
+		if(event.shouldCommit()){
+			event.callback = "hueChanged";
+			event.value = value;
+			event.listenerCount = this.mListeners.size();
+			event.commit();
 		}
 		return;
 	}
 	
 	public void notifyAllSatChanged()
 	{
-		for(HSLPanelListener listener : this.mListeners)
-		{
-			listener.saturationChanged(this.mModel.getCurrentSat());
+		HSLPanelEvents.DispatchEvent event = new HSLPanelEvents.DispatchEvent();
+		float value = this.mModel.getCurrentSat();
+		event.begin();
+		this.mListeners.fireSatChanged(value);
+		event.end();
+		if(event.shouldCommit()){
+			event.callback = "saturationChanged";
+			event.value = value;
+			event.listenerCount = this.mListeners.size();
+			event.commit();
 		}
 		return;
 	}
 	
 	public void notifyAllLumChanged()
 	{
-		for(HSLPanelListener listener : this.mListeners)
-		{
-			listener.luminanceChanged(this.mModel.getCurrentLum());
+		HSLPanelEvents.DispatchEvent event = new HSLPanelEvents.DispatchEvent();
+		float value = this.mModel.getCurrentLum();
+		event.begin();
+		this.mListeners.fireLumChanged(value);
+		event.end();
+		if(event.shouldCommit()){
+			event.callback = "luminanceChanged";
+			event.value = value;
+			event.listenerCount = this.mListeners.size();
+			event.commit();
+		}
+		return;
+	}
+	
+	private void commitInputEvent(HSLPanelEvents.InputEvent event, String action, MouseEvent e)
+	{
+		event.end();
+		if(event.shouldCommit()){
+			event.action = action;
+			event.target = this.mHueGripped ? "hue" : this.mSLGripped ? "sl" : "none";
+			event.x = e.getX();
+			event.y = e.getY();
+			event.commit();
 		}
 		return;
 	}
@@ -360,29 +1176,54 @@ public class HSLPanelComponent extends JPanel
 				if(e.getPoint() == null){
 					return;
 				}
-				if(mSLBounds.contains(e.getPoint())){
+				HSLPanelEvents.InputEvent event = new HSLPanelEvents.InputEvent();
+				event.begin();
+				float previousHue = mModel.getCurrentHue();
+				Rectangle previousHueCaret = getHueCaretBounds();
+				Rectangle previousSLCaret = getSLCaretBounds();
+				mDragStartHue = previousHue;
+				mDragStartSat = mModel.getCurrentSat();
+				mDragStartLum = mModel.getCurrentLum();
+				if(mGeometry.isInSLGraph(e.getX(), e.getY())){
 					mSLGripped = true;
 					mHueGripped = false;
-					setSaturation(e.getPoint().x);
-					setLuminance(e.getPoint().y);
-				}else{
+					setSaturationAndLuminance(e.getPoint().x, e.getPoint().y);
+				}else if(mGeometry.isInRing(e.getX(), e.getY())){
 					mHueGripped = true;
 					mSLGripped = false;
 					setHue(e.getX(), e.getY());
+				}else{
+					mHueGripped = false;
+					mSLGripped = false;
+					commitInputEvent(event, "pressed", e);
+					return;
 				}
-				HSLPanelComponent.this.repaint();
+				repaintChanges(previousHue, previousHueCaret, previousSLCaret);
+				commitInputEvent(event, "pressed", e);
 				return;
 			}
 			
 			@Override
 			public void mouseReleased(MouseEvent e)
 			{
+				if(!mHueGripped && !mSLGripped){
+					return;
+				}
 				mHueGripped = false;
 				mSLGripped = false;
-				notifyAllHueChanged();
-				notifyAllSatChanged();
-				notifyAllLumChanged();
-				HSLPanelComponent.this.repaint();
+				if(Float.compare(mModel.getCurrentHue(), mDragStartHue) != 0){
+					notifyAllHueChanged();
+				}
+				if(Float.compare(mModel.getCurrentSat(), mDragStartSat) != 0){
+					notifyAllSatChanged();
+				}
+				if(Float.compare(mModel.getCurrentLum(), mDragStartLum) != 0){
+					notifyAllLumChanged();
+				}
+				notifyAllColorChanged();
+				if(mSLPreviewShown){
+					HSLPanelComponent.this.repaint(mSLBounds);
+				}
 				return;
 			}
 		};
@@ -398,13 +1239,21 @@ public class HSLPanelComponent extends JPanel
 				if(e.getPoint() == null){
 					return;
 				}
+				HSLPanelEvents.InputEvent event = new HSLPanelEvents.InputEvent();
+				event.begin();
+				float previousHue = mModel.getCurrentHue();
+				Rectangle previousHueCaret = getHueCaretBounds();
+				Rectangle previousSLCaret = getSLCaretBounds();
 				if(mSLGripped){
-					setSaturation(e.getPoint().x);
-					setLuminance(e.getPoint().y);
+					setSaturationAndLuminance(e.getPoint().x, e.getPoint().y);
 				}else if(mHueGripped){
 					setHue(e.getX(), e.getY());
+					if(mProgressiveRendering){
+						restartRefineTimer();
+					}
 				}
-				HSLPanelComponent.this.repaint();
+				repaintChanges(previousHue, previousHueCaret, previousSLCaret);
+				commitInputEvent(event, "dragged", e);
 				return;
 			}
 			
@@ -414,26 +1263,28 @@ public class HSLPanelComponent extends JPanel
 				if(e.getPoint() == null){
 					return;
 				}
-				float centerX = HSLPanelComponent.this.getWidth() / 2.0F;
-				float centerY = HSLPanelComponent.this.getHeight() / 2.0F;
-				int offset = BORDER_THICKNESS + BORDER_SPACE;
-				int thickness = (int)Math.round(mRingThickness * HSLPanelComponent.this.getWidth());
-				float radius = centerX - (offset + (thickness / 2.0F));
-				float dirX = (float)Math.cos(mModel.getCurrentHue() * HSLPanelModel.PI2);
-				float dirY = -(float)Math.sin(mModel.getCurrentHue() * HSLPanelModel.PI2);
-				int hueX = (int)Math.round(centerX + (dirX * radius));
-				int hueY = (int)Math.round(centerY + (dirY * radius));
-				int slX = mSLBounds.x + (int)Math.round(mModel.getCurrentSat() * (float)mSLBounds.width);
-				int slY = mSLBounds.y + (int)Math.round(mModel.getCurrentLum() * (float)mSLBounds.height);
-				if(distance(e.getX(), e.getY(), hueX, hueY) <= 5 || distance(e.getX(), e.getY(), slX, slY) <= 5){
-					HSLPanelComponent.this.setCursor(mHoverCursor);
-				}else{
-					HSLPanelComponent.this.setCursor(mNormalCursor);
+				validateCarets();
+				Cursor cursor = mNormalCursor;
+				if(mGeometry.isNear(e.getX(), e.getY(), mHueCaret, HOVER_RADIUS) || mGeometry.isNear(e.getX(), e.getY(), mSLCaret, HOVER_RADIUS)){
+					cursor = mHoverCursor;
+				}
+				if(HSLPanelComponent.this.getCursor() != cursor){
+					HSLPanelComponent.this.setCursor(cursor);
 				}
 				return;
 			}
 		};
 	}
 	
-	
+	private static class ScaledSLImage
+	{
+		private final BufferedImage mImage;
+		private final float mHue;
+		
+		public ScaledSLImage(BufferedImage image, float hue)
+		{
+			this.mImage = image;
+			this.mHue = hue;
+		}
+	}
 }
@@ -0,0 +1,97 @@
+package main.gui.custom;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events emitted by HSLPanelComponent, so picker jank can be correlated with GC
+ * and the rest of the application in a single recording.  The events are disabled unless a recording
+ * enables them, for instance with -XX:StartFlightRecording or a custom .jfc settings file.
+ */
+final class HSLPanelEvents
+{
+	private static final String CATEGORY = "HSLPanel";
+	
+	public static final String LAYER_RING = "ring";
+	public static final String LAYER_SL = "sl";
+	public static final String LAYER_SL_PREVIEW = "sl-preview";
+	
+	private HSLPanelEvents()
+	{
+	}
+	
+	@Name("main.gui.custom.Paint")
+	@Label("HSLPanel Paint")
+	@Description("One paintComponent call of an HSLPanelComponent")
+	@Category({"Swing", CATEGORY})
+	@StackTrace(false)
+	static final class PaintEvent extends Event
+	{
+		@Label("Width")
+		int width;
+		
+		@Label("Height")
+		int height;
+		
+		@Label("Clip X")
+		int clipX;
+		
+		@Label("Clip Y")
+		int clipY;
+		
+		@Label("Clip Width")
+		int clipWidth;
+		
+		@Label("Clip Height")
+		int clipHeight;
+		
+		@Label("Device Scale")
+		double scale;
+		
+		@Label("Regenerated Layers")
+		@Description("Comma separated cached layers rebuilt during this paint, empty when everything was blitted")
+		String regeneratedLayers;
+	}
+	
+	@Name("main.gui.custom.Input")
+	@Label("HSLPanel Input")
+	@Description("One mouse press or drag handled by an HSLPanelComponent")
+	@Category({"Swing", CATEGORY})
+	@StackTrace(false)
+	static final class InputEvent extends Event
+	{
+		@Label("Action")
+		String action;
+		
+		@Label("Target")
+		@Description("hue, sl or none")
+		String target;
+		
+		@Label("X")
+		int x;
+		
+		@Label("Y")
+		int y;
+	}
+	
+	@Name("main.gui.custom.Dispatch")
+	@Label("HSLPanel Listener Dispatch")
+	@Description("One notification of all registered HSLPanelListeners; the duration is the total listener time")
+	@Category({"Swing", CATEGORY})
+	@StackTrace(false)
+	static final class DispatchEvent extends Event
+	{
+		@Label("Callback")
+		String callback;
+		
+		@Label("Value")
+		float value;
+		
+		@Label("Listener Count")
+		int listenerCount;
+	}
+}
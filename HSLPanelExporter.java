@@ -0,0 +1,334 @@
+package main.gui.custom;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes HSL panel images of any size, for instance 16384x16384 print assets, without ever holding the
+ * whole image in memory.  The panel is rendered by an HSLPanelRasterEngine in horizontal bands that are
+ * streamed to the output as soon as they are complete, so memory stays at a few bands of
+ * width x bandHeight pixels regardless of the image height:
+ * 
+ *   new HSLPanelExporter().writePNG(out, 16384, 16384, hue, sat, lum, HSLPanelStyle.DEFAULT);
+ * 
+ * With an executor, several bands are rendered concurrently while earlier ones are written, with at
+ * most maxBandsInFlight bands alive at a time.  An exporter can be reused but not shared between
+ * threads while writing.
+ */
+public class HSLPanelExporter
+{
+	private static final int DEFAULT_BAND_HEIGHT = 64;
+	private static final int IDAT_SIZE = 64 * 1024;
+	private static final byte[] PNG_SIGNATURE = new byte[]{(byte)0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+	private static final int PNG_COLOR_TYPE_RGB = 2;
+	private static final int PNG_FILTER_SUB = 1;
+	
+	private final HSLPanelRasterEngine mEngine;
+	private int mBandHeight = DEFAULT_BAND_HEIGHT;
+	private Executor mExecutor = null;
+	private int mMaxBandsInFlight = 1;
+	private int mCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+	
+	public HSLPanelExporter()
+	{
+		this(new HSLPanelRasterEngine());
+	}
+	
+	public HSLPanelExporter(HSLPanelRasterEngine engine)
+	{
+		if(engine == null){
+			throw new IllegalArgumentException("Expecting an engine.");
+		}
+		this.mEngine = engine;
+	}
+	
+	/**
+	 * Sets the number of rows rendered at a time.
+	 */
+	public void setBandHeight(int rows)
+	{
+		if(rows < 1){
+			throw new IllegalArgumentException("Expecting a positive band height.  Received: " + rows);
+		}
+		this.mBandHeight = rows;
+		return;
+	}
+	
+	public int getBandHeight()
+	{
+		return this.mBandHeight;
+	}
+	
+	/**
+	 * Renders bands on the given executor, keeping at most maxBandsInFlight of them rendered or being
+	 * rendered ahead of the writer.  A null executor renders every band on the calling thread.
+	 */
+	public void setExecutor(Executor executor, int maxBandsInFlight)
+	{
+		if(maxBandsInFlight < 1){
+			throw new IllegalArgumentException("Expecting a positive band count.  Received: " + maxBandsInFlight);
+		}
+		this.mExecutor = executor;
+		this.mMaxBandsInFlight = executor == null ? 1 : maxBandsInFlight;
+		return;
+	}
+	
+	public Executor getExecutor()
+	{
+		return this.mExecutor;
+	}
+	
+	public int getMaxBandsInFlight()
+	{
+		return this.mMaxBandsInFlight;
+	}
+	
+	/**
+	 * Sets the PNG deflate level, from Deflater.NO_COMPRESSION to Deflater.BEST_COMPRESSION.
+	 */
+	public void setCompressionLevel(int level)
+	{
+		if(level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)){
+			throw new IllegalArgumentException("Expecting a deflate level between 0 and 9.  Received: " + level);
+		}
+		this.mCompressionLevel = level;
+		return;
+	}
+	
+	public int getCompressionLevel()
+	{
+		return this.mCompressionLevel;
+	}
+	
+	/**
+	 * Writes the panel as an 8 bit RGB PNG.  The stream is not closed.
+	 */
+	public void writePNG(OutputStream out, int width, int height, float hue, float sat, float lum, HSLPanelStyle style) throws IOException
+	{
+		PNGRowWriter writer = new PNGRowWriter(out, width, height, this.mCompressionLevel);
+		try{
+			this.write(writer, width, height, hue, sat, lum, style);
+			writer.finish();
+		}finally{
+			writer.end();
+		}
+		return;
+	}
+	
+	/**
+	 * Writes the panel as headerless 8 bit RGB, three bytes per pixel, row after row.  The stream is
+	 * not closed.
+	 */
+	public void writeRaw(OutputStream out, int width, int height, float hue, float sat, float lum, HSLPanelStyle style) throws IOException
+	{
+		this.write(new RawRowWriter(out, width), width, height, hue, sat, lum, style);
+		out.flush();
+		return;
+	}
+	
+	private void write(RowWriter writer, int width, int height, float hue, float sat, float lum, HSLPanelStyle style) throws IOException
+	{
+		if(width <= 0 || height <= 0){
+			throw new IllegalArgumentException("Expecting a positive size.  Received: " + width + "x" + height);
+		}
+		int bandHeight = Math.min(this.mBandHeight, height);
+		Executor executor = this.mExecutor;
+		if(executor == null){
+			BufferedImage band = new BufferedImage(width, bandHeight, BufferedImage.TYPE_INT_RGB);
+			for(int y = 0; y < height; y += bandHeight)
+			{
+				this.mEngine.render(band, y, width, height, hue, sat, lum, style);
+				this.writeBand(writer, band, Math.min(bandHeight, height - y));
+			}
+			return;
+		}
+		ArrayDeque<CompletableFuture<BufferedImage>> inFlight = new ArrayDeque<CompletableFuture<BufferedImage>>();
+		ArrayDeque<BufferedImage> spare = new ArrayDeque<BufferedImage>();
+		int next = 0;
+		try{
+			for(int y = 0; y < height; y += bandHeight)
+			{
+				while(next < height && inFlight.size() < this.mMaxBandsInFlight)
+				{
+					BufferedImage band = spare.isEmpty() ? new BufferedImage(width, bandHeight, BufferedImage.TYPE_INT_RGB) : spare.pop();
+					int originY = next;
+					inFlight.add(CompletableFuture.supplyAsync(() -> {
+						this.mEngine.render(band, originY, width, height, hue, sat, lum, style);
+						return band;
+					}, executor));
+					next += bandHeight;
+				}
+				BufferedImage band = inFlight.remove().join();
+				this.writeBand(writer, band, Math.min(bandHeight, height - y));
+				spare.push(band);
+			}
+		}catch(CompletionException e){
+			if(e.getCause() instanceof RuntimeException){
+				throw (RuntimeException)e.getCause();
+			}
+			throw e;
+		}finally{
+			for(CompletableFuture<BufferedImage> future : inFlight)
+			{
+				future.cancel(false);
+			}
+		}
+		return;
+	}
+	
+	private void writeBand(RowWriter writer, BufferedImage band, int rows) throws IOException
+	{
+		int width = band.getWidth();
+		int[] data = ((DataBufferInt)band.getRaster().getDataBuffer()).getData();
+		for(int row = 0; row < rows; row++)
+		{
+			writer.writeRow(data, row * width);
+		}
+		return;
+	}
+	
+	private interface RowWriter
+	{
+		abstract void writeRow(int[] pixels, int offset) throws IOException;
+	}
+	
+	private static class RawRowWriter implements RowWriter
+	{
+		private final OutputStream mOut;
+		private final byte[] mRow;
+		
+		public RawRowWriter(OutputStream out, int width)
+		{
+			this.mOut = out;
+			this.mRow = new byte[width * 3];
+		}
+		
+		@Override
+		public void writeRow(int[] pixels, int offset) throws IOException
+		{
+			byte[] row = this.mRow;
+			for(int x = 0, i = 0; i < row.length; x++, i += 3)
+			{
+				int pixel = pixels[offset + x];
+				row[i] = (byte)(pixel >> 16);
+				row[i + 1] = (byte)(pixel >> 8);
+				row[i + 2] = (byte)pixel;
+			}
+			this.mOut.write(row);
+			return;
+		}
+	}
+	
+	/**
+	 * A minimal PNG encoder for 8 bit RGB images fed one row at a time.  Each row uses the Sub filter,
+	 * which suits the smooth gradients of the panel, and the compressed stream is cut into IDAT chunks
+	 * of IDAT_SIZE bytes as it is produced.
+	 */
+	private static class PNGRowWriter implements RowWriter
+	{
+		private final DataOutputStream mOut;
+		private final Deflater mDeflater;
+		private final CRC32 mCRC = new CRC32();
+		private final byte[] mRow;
+		private final byte[] mChunk = new byte[IDAT_SIZE];
+		private int mChunkLength = 0;
+		
+		public PNGRowWriter(OutputStream out, int width, int height, int level) throws IOException
+		{
+			this.mOut = new DataOutputStream(out);
+			this.mDeflater = new Deflater(level);
+			this.mRow = new byte[1 + (width * 3)];
+			this.mOut.write(PNG_SIGNATURE);
+			byte[] header = new byte[13];
+			writeInt(header, 0, width);
+			writeInt(header, 4, height);
+			header[8] = 8;
+			header[9] = PNG_COLOR_TYPE_RGB;
+			this.writeChunk("IHDR", header, header.length);
+		}
+		
+		@Override
+		public void writeRow(int[] pixels, int offset) throws IOException
+		{
+			byte[] row = this.mRow;
+			row[0] = PNG_FILTER_SUB;
+			int previous = 0;
+			for(int x = 0, i = 1; i < row.length; x++, i += 3)
+			{
+				int pixel = pixels[offset + x];
+				row[i] = (byte)((pixel >> 16) - (previous >> 16));
+				row[i + 1] = (byte)((pixel >> 8) - (previous >> 8));
+				row[i + 2] = (byte)(pixel - previous);
+				previous = pixel;
+			}
+			this.mDeflater.setInput(row);
+			while(!this.mDeflater.needsInput())
+			{
+				this.deflate();
+			}
+			return;
+		}
+		
+		public void finish() throws IOException
+		{
+			this.mDeflater.finish();
+			while(!this.mDeflater.finished())
+			{
+				this.deflate();
+			}
+			if(this.mChunkLength > 0){
+				this.writeChunk("IDAT", this.mChunk, this.mChunkLength);
+			}
+			this.writeChunk("IEND", this.mChunk, 0);
+			this.mOut.flush();
+			return;
+		}
+		
+		public void end()
+		{
+			this.mDeflater.end();
+			return;
+		}
+		
+		private void deflate() throws IOException
+		{
+			this.mChunkLength += this.mDeflater.deflate(this.mChunk, this.mChunkLength, this.mChunk.length - this.mChunkLength);
+			if(this.mChunkLength == this.mChunk.length){
+				this.writeChunk("IDAT", this.mChunk, this.mChunkLength);
+				this.mChunkLength = 0;
+			}
+			return;
+		}
+		
+		private void writeChunk(String type, byte[] data, int length) throws IOException
+		{
+			byte[] typeBytes = new byte[]{(byte)type.charAt(0), (byte)type.charAt(1), (byte)type.charAt(2), (byte)type.charAt(3)};
+			this.mCRC.reset();
+			this.mCRC.update(typeBytes);
+			this.mCRC.update(data, 0, length);
+			this.mOut.writeInt(length);
+			this.mOut.write(typeBytes);
+			this.mOut.write(data, 0, length);
+			this.mOut.writeInt((int)this.mCRC.getValue());
+			return;
+		}
+		
+		private static void writeInt(byte[] dest, int offset, int value)
+		{
+			dest[offset] = (byte)(value >>> 24);
+			dest[offset + 1] = (byte)(value >>> 16);
+			dest[offset + 2] = (byte)(value >>> 8);
+			dest[offset + 3] = (byte)value;
+			return;
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package main.gui.custom;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+
+/**
+ * Immutable layout of an HSL panel of a given size and ring thickness: its center, the hue ring
+ * annulus, the radius the hue caret travels on, and the SL graph bounds.  Computing it once per
+ * layout lets painting and mouse handling share the same numbers, and hit testing compare squared
+ * distances instead of taking square roots.
+ */
+public final class HSLPanelGeometry
+{
+	private static final int BORDER_SPACE = 1;
+	private static final int BORDER_THICKNESS = 1;
+	
+	private final int mWidth;
+	private final int mHeight;
+	private final float mCenterX;
+	private final float mCenterY;
+	private final int mOffset;
+	private final int mThickness;
+	private final float mCaretRadius;
+	private final double mInnerRadius;
+	private final double mOuterRadius;
+	private final double mInnerRadiusSquared;
+	private final double mOuterRadiusSquared;
+	private final int mSLX;
+	private final int mSLY;
+	private final int mSLWidth;
+	private final int mSLHeight;
+	
+	/**
+	 * The ring thickness is a fraction of the width.
+	 */
+	public HSLPanelGeometry(int width, int height, float ringThickness)
+	{
+		this.mWidth = width;
+		this.mHeight = height;
+		this.mCenterX = width / 2.0F;
+		this.mCenterY = height / 2.0F;
+		this.mOffset = BORDER_THICKNESS + BORDER_SPACE;
+		this.mThickness = Math.round(ringThickness * width);
+		this.mCaretRadius = this.mCenterX - (this.mOffset + (this.mThickness / 2.0F));
+		this.mOuterRadius = Math.max(0.0, (width - (this.mOffset * 2)) / 2.0);
+		this.mInnerRadius = Math.max(0.0, this.mOuterRadius - this.mThickness);
+		this.mInnerRadiusSquared = this.mInnerRadius * this.mInnerRadius;
+		this.mOuterRadiusSquared = this.mOuterRadius * this.mOuterRadius;
+		this.mSLWidth = (int)Math.round(width / 2.0);
+		this.mSLHeight = (int)Math.round(height / 2.0);
+		this.mSLX = (int)Math.round((width - this.mSLWidth) / 2.0);
+		this.mSLY = (int)Math.round((height - this.mSLHeight) / 2.0);
+	}
+	
+	public int getWidth()
+	{
+		return this.mWidth;
+	}
+	
+	public int getHeight()
+	{
+		return this.mHeight;
+	}
+	
+	public float getCenterX()
+	{
+		return this.mCenterX;
+	}
+	
+	public float getCenterY()
+	{
+		return this.mCenterY;
+	}
+	
+	/**
+	 * Returns the space between the panel edge and the outside of the ring.
+	 */
+	public int getOffset()
+	{
+		return this.mOffset;
+	}
+	
+	public int getRingThickness()
+	{
+		return this.mThickness;
+	}
+	
+	public double getInnerRadius()
+	{
+		return this.mInnerRadius;
+	}
+	
+	public double getOuterRadius()
+	{
+		return this.mOuterRadius;
+	}
+	
+	/**
+	 * Returns the distance from the center to the hue caret, halfway across the ring.
+	 */
+	public float getCaretRadius()
+	{
+		return this.mCaretRadius;
+	}
+	
+	public Rectangle getSLBounds()
+	{
+		return new Rectangle(this.mSLX, this.mSLY, this.mSLWidth, this.mSLHeight);
+	}
+	
+	/**
+	 * Returns the center of the hue caret for the given hue.
+	 */
+	public Point getHueCaretLocation(float hue)
+	{
+		float dirX = (float)Math.cos(hue * HSLPanelModel.PI2);
+		float dirY = -(float)Math.sin(hue * HSLPanelModel.PI2);
+		return new Point(Math.round(this.mCenterX + (dirX * this.mCaretRadius)), Math.round(this.mCenterY + (dirY * this.mCaretRadius)));
+	}
+	
+	/**
+	 * Returns the center of the SL caret for the given saturation and luminance.
+	 */
+	public Point getSLCaretLocation(float sat, float lum)
+	{
+		return new Point(this.mSLX + Math.round(sat * (float)this.mSLWidth), this.mSLY + Math.round(lum * (float)this.mSLHeight));
+	}
+	
+	/**
+	 * Returns true when the point lies on the hue ring, between its inner and outer edge.
+	 */
+	public boolean isInRing(int x, int y)
+	{
+		double dx = x - this.mCenterX;
+		double dy = y - this.mCenterY;
+		double distanceSquared = (dx * dx) + (dy * dy);
+		return distanceSquared >= this.mInnerRadiusSquared && distanceSquared <= this.mOuterRadiusSquared;
+	}
+	
+	/**
+	 * Returns true when the point lies on the SL graph.
+	 */
+	public boolean isInSLGraph(int x, int y)
+	{
+		return x >= this.mSLX && y >= this.mSLY && x < this.mSLX + this.mSLWidth && y < this.mSLY + this.mSLHeight;
+	}
+	
+	/**
+	 * Returns true when the point is at most radius away from location.
+	 */
+	public boolean isNear(int x, int y, Point location, int radius)
+	{
+		int dx = x - location.x;
+		int dy = y - location.y;
+		return ((dx * dx) + (dy * dy)) <= (radius * radius);
+	}
+	
+	/**
+	 * Returns the hue pointed at from the center by the given point.
+	 */
+	public float getHueAt(int x, int y)
+	{
+		float angle = (float)Math.atan2(-(y - this.mCenterY), x - this.mCenterX);
+		angle = angle % HSLPanelModel.PI2;
+		angle = angle < 0 ? angle + HSLPanelModel.PI2 : Math.abs(angle);
+		return angle / HSLPanelModel.PI2;
+	}
+}
@@ -9,8 +9,11 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
 import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
 import java.awt.image.WritableRaster;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -37,13 +40,21 @@ import java.util.TreeSet;
  */
 public class HSLPanelGradient implements Paint
 {
+	private static final int ANGLE_STEPS = 4096;
+	private static final double ANGLE_TO_STEP = ANGLE_STEPS / (Math.PI * 2.0);
+	
+	private static WeakReference<WritableRaster> sCachedRaster = null;
+	
 	private Point2D.Double mCenter;
+	private double mInnerRadius = 0.0;
+	private double mOuterRadius = Double.POSITIVE_INFINITY;
 	private double[] mFractionAngles = null;
 	private double[] mRedLookup;
 	private double[] mGreenLookup;
 	private double[] mBlueLookup;
 	private double[] mAlphaLookup;
 	private Color[] mColors;
+	private int[] mAngleColors;
 	private final float INT_TO_FLOAT_CONST = 1f / 255f;
 	
 	public HSLPanelGradient(Point2D.Double centerParam, float[] fractionsParam, Color[] colorsParam) throws IllegalArgumentException
@@ -51,6 +62,22 @@ public class HSLPanelGradient implements Paint
 		this(centerParam, 0.0f, fractionsParam, colorsParam);
 	}
 	
+	/**
+	 * Creates a gradient that only paints the ring between innerRadius and outerRadius around the
+	 * center, with antialiased edges, and is transparent elsewhere.  Filling the bounds of the ring
+	 * then draws it in one pass, and tiles inside the hole or outside the ring cost no gradient
+	 * evaluation at all.
+	 */
+	public HSLPanelGradient(Point2D.Double centerParam, double innerRadius, double outerRadius, float[] fractionsParam, Color[] colorsParam) throws IllegalArgumentException
+	{
+		this(centerParam, 0.0f, fractionsParam, colorsParam);
+		if(innerRadius < 0.0 || outerRadius < innerRadius){
+			throw new IllegalArgumentException("Expecting 0 <= inner radius <= outer radius.  Received: " + innerRadius + ", " + outerRadius);
+		}
+		this.mInnerRadius = innerRadius;
+		this.mOuterRadius = outerRadius;
+	}
+	
 	public HSLPanelGradient(Point2D.Double centerParam, float offsetParam, float[] fractionsParam, Color[] colorsParam) throws IllegalArgumentException
 	{
 		// Check that fractions and colors are of the same size
@@ -141,6 +168,72 @@ public class HSLPanelGradient implements Paint
 			this.mBlueLookup[i] = ((this.mColors[i + 1].getBlue() - this.mColors[i].getBlue()) * INT_TO_FLOAT_CONST) / (this.mFractionAngles[i + 1] - this.mFractionAngles[i]);
 			this.mAlphaLookup[i] = ((this.mColors[i + 1].getAlpha() - this.mColors[i].getAlpha()) * INT_TO_FLOAT_CONST) / (this.mFractionAngles[i + 1] - this.mFractionAngles[i]);
 		}
+		
+		// Resolve the color of every angle step once, so pixels cost the same whatever the number of stops
+		this.mAngleColors = new int[ANGLE_STEPS];
+		for(int i = 0; i < ANGLE_STEPS; i++)
+		{
+			this.mAngleColors[i] = this.getColorAtAngle((i * 360.0) / ANGLE_STEPS);
+		}
+	}
+	
+	/**
+	 * Returns the packed ARGB color of the gradient at the given angle, in degrees clockwise from the top.
+	 */
+	private int getColorAtAngle(double angle)
+	{
+		int segment = -1;
+		for(int i = 0; i < (this.mFractionAngles.length - 1); i++)
+		{
+			if(angle >= this.mFractionAngles[i]){
+				segment = i;
+			}
+		}
+		if(segment < 0){
+			return 0;
+		}
+		double delta = angle - this.mFractionAngles[segment];
+		Color color = this.mColors[segment];
+		int red = toChannel(color.getRed() * INT_TO_FLOAT_CONST + delta * this.mRedLookup[segment]);
+		int green = toChannel(color.getGreen() * INT_TO_FLOAT_CONST + delta * this.mGreenLookup[segment]);
+		int blue = toChannel(color.getBlue() * INT_TO_FLOAT_CONST + delta * this.mBlueLookup[segment]);
+		int alpha = toChannel(color.getAlpha() * INT_TO_FLOAT_CONST + delta * this.mAlphaLookup[segment]);
+		return (alpha << 24) | (red << 16) | (green << 8) | blue;
+	}
+	
+	private static int toChannel(double value)
+	{
+		int channel = (int)(value * 255);
+		return (channel < 0) ? 0 : (channel > 255) ? 255 : channel;
+	}
+	
+	/**
+	 * Returns the index in mAngleColors of the direction (dx, dy), measured clockwise from the top with
+	 * the y axis pointing down.  This is atan2(dx, -dy) with a polynomial arctangent accurate to about
+	 * 1e-5 radians, far below the width of an angle step.
+	 */
+	private static int getAngleStep(double dx, double dy)
+	{
+		double x = -dy;
+		double y = dx;
+		double absX = Math.abs(x);
+		double absY = Math.abs(y);
+		if(absX == 0.0 && absY == 0.0){
+			return 0;
+		}
+		double z = absX >= absY ? absY / absX : absX / absY;
+		double z2 = z * z;
+		double angle = z * (0.99997726 + z2 * (-0.33262347 + z2 * (0.19354346 + z2 * (-0.11643287 + z2 * (0.05265332 + z2 * -0.01172120)))));
+		if(absY > absX){
+			angle = (Math.PI / 2.0) - angle;
+		}
+		if(x < 0.0){
+			angle = Math.PI - angle;
+		}
+		if(y < 0.0){
+			angle = (Math.PI * 2.0) - angle;
+		}
+		return (int)((angle * ANGLE_TO_STEP) + 0.5) & (ANGLE_STEPS - 1);
 	}
 	
 	private HashMap<Float, Color> recalculate(List<Float> fractionList, List<Color> colorList, float offset)
@@ -234,7 +327,8 @@ public class HSLPanelGradient implements Paint
 	public PaintContext createContext(ColorModel model, Rectangle deviceBounds, Rectangle2D userBounds, AffineTransform transform, RenderingHints hints)
 	{
 		Point2D transformedCenter = transform.transform(this.mCenter, null);
-		return new ConicalGradientPaintContext(transformedCenter);
+		double scale = Math.sqrt(Math.abs(transform.getDeterminant()));
+		return new ConicalGradientPaintContext(transformedCenter, this.mInnerRadius * scale, this.mOuterRadius * scale);
 	}
 	
 	@Override
@@ -243,18 +337,77 @@ public class HSLPanelGradient implements Paint
 		return java.awt.Transparency.TRANSLUCENT;
 	}
 	
+	private static double square(double value)
+	{
+		return value * value;
+	}
+	
+	/**
+	 * Returns a raster of at least the given size, reusing the one released by the last disposed
+	 * context when it is large enough, as the JDK gradient paint contexts do.
+	 */
+	private static synchronized WritableRaster getCachedRaster(int width, int height)
+	{
+		if(sCachedRaster != null){
+			WritableRaster raster = sCachedRaster.get();
+			if(raster != null && raster.getWidth() >= width && raster.getHeight() >= height){
+				sCachedRaster = null;
+				return raster;
+			}
+		}
+		return ColorModel.getRGBdefault().createCompatibleWritableRaster(width, height);
+	}
+	
+	/**
+	 * Keeps a raster for the next context, unless the one already kept is at least as large.
+	 */
+	private static synchronized void putCachedRaster(WritableRaster raster)
+	{
+		if(sCachedRaster != null){
+			WritableRaster cached = sCachedRaster.get();
+			if(cached != null && (cached.getWidth() * cached.getHeight()) >= (raster.getWidth() * raster.getHeight())){
+				return;
+			}
+		}
+		sCachedRaster = new WeakReference<WritableRaster>(raster);
+		return;
+	}
+	
 	private class ConicalGradientPaintContext implements PaintContext
 	{
 		private Point2D.Double center = null;
+		private final boolean mAnnulus;
+		private final double mInnerRadius;
+		private final double mOuterRadius;
+		private final double mHoleSquared;
+		private final double mSolidInnerSquared;
+		private final double mSolidOuterSquared;
+		private final double mOutsideSquared;
+		private WritableRaster mRaster = null;
 		
-		public ConicalGradientPaintContext(Point2D center)
+		/**
+		 * Pixels are fully covered between mSolidInner and mSolidOuter, partly covered within half a
+		 * pixel of either radius, and transparent in the hole or outside the ring.
+		 */
+		public ConicalGradientPaintContext(Point2D center, double innerRadius, double outerRadius)
 		{
 			this.center = new Point2D.Double(center.getX(), center.getY());
+			this.mAnnulus = outerRadius != Double.POSITIVE_INFINITY;
+			this.mInnerRadius = innerRadius;
+			this.mOuterRadius = outerRadius;
+			this.mHoleSquared = square(Math.max(0.0, innerRadius - 0.5));
+			this.mSolidInnerSquared = square(innerRadius + 0.5);
+			this.mSolidOuterSquared = square(Math.max(0.0, outerRadius - 0.5));
+			this.mOutsideSquared = square(outerRadius + 0.5);
 		}
 		
 		@Override
 		public void dispose()
 		{
+			if(this.mRaster != null){
+				putCachedRaster(this.mRaster);
+				this.mRaster = null;
+			}
 		}
 		
 		@Override
@@ -269,74 +422,81 @@ public class HSLPanelGradient implements Paint
 			double rotationCenterX = -x + this.center.x;
 			double rotationCenterY = -y + this.center.y;
 			
-			int max = HSLPanelGradient.this.mFractionAngles.length;
+			int[] angleColors = HSLPanelGradient.this.mAngleColors;
 			
-			// Create raster for given ColorModel
-			WritableRaster raster = getColorModel().createCompatibleWritableRaster(tileWidth, tileHeight);
+			// Reuse the raster of the previous tile, which may be larger than this one
+			WritableRaster raster = this.mRaster;
+			if(raster == null || raster.getWidth() < tileWidth || raster.getHeight() < tileHeight){
+				if(raster != null){
+					putCachedRaster(raster);
+				}
+				raster = getCachedRaster(tileWidth, tileHeight);
+				this.mRaster = raster;
+			}
 			
-			// Create data array with place for red, green, blue and alpha values
-			int[] data = new int[(tileWidth * tileHeight * 4)];
+			// Write packed ARGB values straight into the raster's pixel array
+			int[] pixels = ((DataBufferInt)raster.getDataBuffer()).getData();
+			int stride = ((SinglePixelPackedSampleModel)raster.getSampleModel()).getScanlineStride();
 			
-			double dx;
-			double dy;
-			double distance;
-			double angle;
-			double currentRed = 0;
-			double currentGreen = 0;
-			double currentBlue = 0 ;
-			double currentAlpha = 0;
+			if(!this.mAnnulus){
+				for(int py = 0; py < tileHeight; py++)
+				{
+					double dy = py - rotationCenterY;
+					int base = py * stride;
+					for(int px = 0; px < tileWidth; px++)
+					{
+						pixels[base + px] = angleColors[getAngleStep(px - rotationCenterX, dy)];
+					}
+				}
+				return raster;
+			}
+			
+			// Coverage is measured at pixel centers; skip tiles that lie entirely in the hole or outside
+			double centerX = rotationCenterX - 0.5;
+			double centerY = rotationCenterY - 0.5;
+			double nearX = Math.max(0.0, Math.max(-centerX, centerX - (tileWidth - 1)));
+			double nearY = Math.max(0.0, Math.max(-centerY, centerY - (tileHeight - 1)));
+			double farX = Math.max(Math.abs(centerX), Math.abs(centerX - (tileWidth - 1)));
+			double farY = Math.max(Math.abs(centerY), Math.abs(centerY - (tileHeight - 1)));
+			double nearSquared = (nearX * nearX) + (nearY * nearY);
+			double farSquared = (farX * farX) + (farY * farY);
+			if(farSquared <= this.mHoleSquared || nearSquared >= this.mOutsideSquared){
+				for(int py = 0; py < tileHeight; py++)
+				{
+					Arrays.fill(pixels, py * stride, (py * stride) + tileWidth, 0);
+				}
+				return raster;
+			}
+			boolean solid = nearSquared >= this.mSolidInnerSquared && farSquared <= this.mSolidOuterSquared;
 			
 			for(int py = 0; py < tileHeight; py++)
 			{
+				double dy = py - rotationCenterY;
+				double cy = py - centerY;
+				int base = py * stride;
 				for(int px = 0; px < tileWidth; px++)
 				{
-					// Calculate the distance between the current position and the rotation angle
-					dx = px - rotationCenterX;
-					dy = py - rotationCenterY;
-					distance = Math.sqrt(dx * dx + dy * dy);
-					
-					// Avoid division by zero
-					if(distance == 0){
-						distance = 1;
+					if(solid){
+						pixels[base + px] = angleColors[getAngleStep(px - rotationCenterX, dy)];
+						continue;
 					}
-					
-					// 0 degree on top
-					angle = Math.abs(Math.toDegrees(Math.acos(dx / distance)));
-					
-					if(dx >= 0 && dy <= 0){
-						angle = 90.0 - angle;
-					}else if(dx >= 0 && dy >= 0){
-						angle += 90.0;
-					}else if(dx <= 0 && dy >= 0){
-						angle += 90.0;
-					}else if(dx <= 0 && dy <= 0){
-						angle = 450.0 - angle;
+					double cx = px - centerX;
+					double distanceSquared = (cx * cx) + (cy * cy);
+					if(distanceSquared <= this.mHoleSquared || distanceSquared >= this.mOutsideSquared){
+						pixels[base + px] = 0;
+						continue;
 					}
-					
-					// Check for each angle in fractionAngles array
-					for(int i = 0; i < (max - 1); i++)
-					{
-						if(angle >= HSLPanelGradient.this.mFractionAngles[i]){
-							currentRed = HSLPanelGradient.this.mColors[i].getRed() * INT_TO_FLOAT_CONST + (angle - HSLPanelGradient.this.mFractionAngles[i]) * HSLPanelGradient.this.mRedLookup[i];
-							currentGreen = HSLPanelGradient.this.mColors[i].getGreen() * INT_TO_FLOAT_CONST + (angle - HSLPanelGradient.this.mFractionAngles[i]) * HSLPanelGradient.this.mGreenLookup[i];
-							currentBlue = HSLPanelGradient.this.mColors[i].getBlue() * INT_TO_FLOAT_CONST + (angle - HSLPanelGradient.this.mFractionAngles[i]) * HSLPanelGradient.this.mBlueLookup[i];
-							currentAlpha = HSLPanelGradient.this.mColors[i].getAlpha() * INT_TO_FLOAT_CONST + (angle - HSLPanelGradient.this.mFractionAngles[i]) * HSLPanelGradient.this.mAlphaLookup[i];
-							continue;
-						}
+					int color = angleColors[getAngleStep(px - rotationCenterX, dy)];
+					if(distanceSquared < this.mSolidInnerSquared || distanceSquared > this.mSolidOuterSquared){
+						double distance = Math.sqrt(distanceSquared);
+						double coverage = Math.min(Math.min(1.0, distance - this.mInnerRadius + 0.5), Math.min(1.0, this.mOuterRadius - distance + 0.5));
+						int alpha = (int)(((color >>> 24) * coverage) + 0.5);
+						color = (alpha << 24) | (color & 0xFFFFFF);
 					}
-					
-					// Fill data array with calculated color values
-					int base = (py * tileWidth + px) * 4;
-					data[base + 0] = (int) (currentRed * 255);
-					data[base + 1] = (int) (currentGreen * 255);
-					data[base + 2] = (int) (currentBlue * 255);
-					data[base + 3] = (int) (currentAlpha * 255);
+					pixels[base + px] = color;
 				}
 			}
 			
-			// Fill the raster with the data
-			raster.setPixels(0, 0, tileWidth, tileHeight, data);
-			
 			return raster;
 		}
 	}
@@ -0,0 +1,256 @@
+package main.gui.custom;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Shifts the hue and offsets the saturation and luminance of every pixel of an image, working directly
+ * on the int pixels of TYPE_INT_RGB and TYPE_INT_ARGB images.  Large images are split into tiles that
+ * are adjusted in parallel on a fork/join pool; converting a pixel allocates nothing.
+ * 
+ * To recolor an image live while the user picks a color, adjust a preview from the untouched source
+ * on each color change, with createPreviewListener.
+ */
+public class HSLPanelImageAdjuster
+{
+	private static final int TILE_SIZE = 128;
+	private static final int DEFAULT_PARALLEL_THRESHOLD = 256 * 256;
+	
+	private final HSLPanelModel mConverter;
+	private ForkJoinPool mPool = ForkJoinPool.commonPool();
+	private int mParallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+	
+	public HSLPanelImageAdjuster()
+	{
+		this(new HSLPanelModel());
+	}
+	
+	/**
+	 * Creates an adjuster converting colors with the given model.  Only the model's conversion methods
+	 * are used, never its current color.
+	 */
+	public HSLPanelImageAdjuster(HSLPanelModel converter)
+	{
+		if(converter == null){
+			throw new IllegalArgumentException("Expecting a model.");
+		}
+		this.mConverter = converter;
+	}
+	
+	/**
+	 * Sets the pool tiles are adjusted on, or null to always work on the calling thread.  Defaults to
+	 * the common pool.
+	 */
+	public void setPool(ForkJoinPool pool)
+	{
+		this.mPool = pool;
+		return;
+	}
+	
+	public ForkJoinPool getPool()
+	{
+		return this.mPool;
+	}
+	
+	/**
+	 * Sets the image area, in pixels, below which adjusting stays single-threaded.
+	 */
+	public void setParallelThreshold(int pixels)
+	{
+		if(pixels < 0){
+			throw new IllegalArgumentException("Expecting a non-negative pixel count.  Received: " + pixels);
+		}
+		this.mParallelThreshold = pixels;
+		return;
+	}
+	
+	public int getParallelThreshold()
+	{
+		return this.mParallelThreshold;
+	}
+	
+	/**
+	 * Adjusts the image in place.  See the two image form.
+	 */
+	public void adjust(BufferedImage image, float hueShift, float satOffset, float lumOffset)
+	{
+		this.adjust(image, image, hueShift, satOffset, lumOffset);
+		return;
+	}
+	
+	/**
+	 * Writes to dest the pixels of source with hueShift added to their hue, wrapping around, and
+	 * satOffset and lumOffset added to their saturation and luminance, clamped between 0 and 1.  Alpha
+	 * is kept.  Both images must have the same size, and source and dest may be the same image.
+	 */
+	public void adjust(BufferedImage source, BufferedImage dest, float hueShift, float satOffset, float lumOffset)
+	{
+		if(!HSLPanelRasterEngine.isPackedRGB(source) || !HSLPanelRasterEngine.isPackedRGB(dest)){
+			throw new IllegalArgumentException("Expecting TYPE_INT_RGB or TYPE_INT_ARGB images.");
+		}
+		if(source.getWidth() != dest.getWidth() || source.getHeight() != dest.getHeight()){
+			throw new IllegalArgumentException("Expecting images of the same size.  Received: " + source.getWidth() + "x" + source.getHeight() + " and " + dest.getWidth() + "x" + dest.getHeight());
+		}
+		if(satOffset < -1F || satOffset > 1F || lumOffset < -1F || lumOffset > 1F){
+			throw new IllegalArgumentException("Expecting offsets between -1 and 1.  Received: " + satOffset + ", " + lumOffset);
+		}
+		if(source == dest && hueShift == 0F && satOffset == 0F && lumOffset == 0F){
+			return;
+		}
+		Pixels from = new Pixels(source);
+		Pixels to = new Pixels(dest);
+		int width = source.getWidth();
+		int height = source.getHeight();
+		float shift = hueShift - (float)Math.floor(hueShift);
+		ForkJoinPool pool = this.mPool;
+		if(pool == null || pool.getParallelism() < 2 || ((long)width * height) < this.mParallelThreshold){
+			this.adjustTile(from, to, 0, 0, width, height, shift, satOffset, lumOffset, new float[3]);
+		}else{
+			pool.invoke(new TileTask(from, to, 0, 0, width, height, shift, satOffset, lumOffset));
+		}
+		return;
+	}
+	
+	private void adjustTile(Pixels from, Pixels to, int x, int y, int width, int height, float hueShift, float satOffset, float lumOffset, float[] hsl)
+	{
+		HSLPanelModel converter = this.mConverter;
+		int[] src = from.mData;
+		int[] dest = to.mData;
+		for(int row = y; row < y + height; row++)
+		{
+			int srcIndex = from.mOffset + (row * from.mStride) + x;
+			int destIndex = to.mOffset + (row * to.mStride) + x;
+			for(int column = 0; column < width; column++)
+			{
+				int pixel = src[srcIndex + column];
+				converter.getHSLfromPackedRGB(pixel, hsl, 0);
+				float h = hsl[0] + hueShift;
+				h = h >= 1F ? h - 1F : h;
+				float s = converter.clamp(0F, 1F, hsl[1] + satOffset);
+				float l = converter.clamp(0F, 1F, hsl[2] + lumOffset);
+				dest[destIndex + column] = (pixel & 0xFF000000) | (converter.getPackedRGBfromHSL(h, s, l) & 0xFFFFFF);
+			}
+		}
+		return;
+	}
+	
+	/**
+	 * Returns a listener that, on every colorChanged, writes to preview the source image adjusted by
+	 * the difference between the notified color and the reference color, then runs updated.  The hue
+	 * of the reference color maps to hueShift 0, so picking the reference color shows the source
+	 * unchanged.
+	 *
+	 * Register it with HSLPanel.addChangeListener(listener, executor) so that adjusting happens off the
+	 * event dispatch thread, and notifications arriving during an adjustment are merged into one; with
+	 * setColorChangeCoalescing, drags are further limited to one adjustment per interval.  updated
+	 * runs on the executor, so a Swing repaint should be scheduled with SwingUtilities.invokeLater.
+	 */
+	public HSLPanelListener createPreviewListener(BufferedImage source, BufferedImage preview, float referenceHue, float referenceSat, float referenceLum, Runnable updated)
+	{
+		if(!HSLPanelRasterEngine.isPackedRGB(source) || !HSLPanelRasterEngine.isPackedRGB(preview)){
+			throw new IllegalArgumentException("Expecting TYPE_INT_RGB or TYPE_INT_ARGB images.");
+		}
+		if(source == preview){
+			throw new IllegalArgumentException("Expecting a preview image distinct from the source.");
+		}
+		return new HSLPanelListener()
+		{
+			@Override
+			public void hueChanged(float value)
+			{
+				return;
+			}
+			
+			@Override
+			public void saturationChanged(float value)
+			{
+				return;
+			}
+			
+			@Override
+			public void luminanceChanged(float value)
+			{
+				return;
+			}
+			
+			@Override
+			public void colorChanged(float hue, float saturation, float luminance, boolean isAdjusting)
+			{
+				adjust(source, preview, hue - referenceHue, saturation - referenceSat, luminance - referenceLum);
+				if(updated != null){
+					updated.run();
+				}
+				return;
+			}
+		};
+	}
+	
+	/**
+	 * The int pixels of an image, with the index of its first pixel and the distance between rows.
+	 */
+	private static class Pixels
+	{
+		private final int[] mData;
+		private final int mOffset;
+		private final int mStride;
+		
+		public Pixels(BufferedImage image)
+		{
+			WritableRaster raster = image.getRaster();
+			SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel)raster.getSampleModel();
+			this.mData = ((DataBufferInt)raster.getDataBuffer()).getData();
+			this.mStride = model.getScanlineStride();
+			this.mOffset = raster.getDataBuffer().getOffset() + model.getOffset(-raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY());
+		}
+	}
+	
+	@SuppressWarnings("serial")
+	private class TileTask extends RecursiveAction
+	{
+		private final Pixels mFrom;
+		private final Pixels mTo;
+		private final int mX;
+		private final int mY;
+		private final int mWidth;
+		private final int mHeight;
+		private final float mHueShift;
+		private final float mSatOffset;
+		private final float mLumOffset;
+		
+		public TileTask(Pixels from, Pixels to, int x, int y, int width, int height, float hueShift, float satOffset, float lumOffset)
+		{
+			this.mFrom = from;
+			this.mTo = to;
+			this.mX = x;
+			this.mY = y;
+			this.mWidth = width;
+			this.mHeight = height;
+			this.mHueShift = hueShift;
+			this.mSatOffset = satOffset;
+			this.mLumOffset = lumOffset;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if(this.mWidth <= TILE_SIZE && this.mHeight <= TILE_SIZE){
+				adjustTile(this.mFrom, this.mTo, this.mX, this.mY, this.mWidth, this.mHeight, this.mHueShift, this.mSatOffset, this.mLumOffset, new float[3]);
+				return;
+			}
+			if(this.mWidth >= this.mHeight){
+				int half = this.mWidth / 2;
+				invokeAll(new TileTask(this.mFrom, this.mTo, this.mX, this.mY, half, this.mHeight, this.mHueShift, this.mSatOffset, this.mLumOffset),
+							new TileTask(this.mFrom, this.mTo, this.mX + half, this.mY, this.mWidth - half, this.mHeight, this.mHueShift, this.mSatOffset, this.mLumOffset));
+			}else{
+				int half = this.mHeight / 2;
+				invokeAll(new TileTask(this.mFrom, this.mTo, this.mX, this.mY, this.mWidth, half, this.mHueShift, this.mSatOffset, this.mLumOffset),
+							new TileTask(this.mFrom, this.mTo, this.mX, this.mY + half, this.mWidth, this.mHeight - half, this.mHueShift, this.mSatOffset, this.mLumOffset));
+			}
+			return;
+		}
+	}
+}
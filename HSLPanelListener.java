@@ -5,4 +5,15 @@ public interface HSLPanelListener
 	abstract void hueChanged(float value);
 	abstract void saturationChanged(float value);
 	abstract void luminanceChanged(float value);
+	
+	/**
+	 * Called once per model update with the complete color, and not at all when an update leaves the
+	 * color and the adjusting state as they were.  While dragging, these calls may be coalesced (see
+	 * HSLPanelComponent.setColorChangeCoalescing); the call ending a drag always carries
+	 * isAdjusting == false.  It is the only method called when a whole color is set with setColor.
+	 */
+	default void colorChanged(float hue, float saturation, float luminance, boolean isAdjusting)
+	{
+		return;
+	}
 }
@@ -0,0 +1,231 @@
+package main.gui.custom;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copy-on-write listener list used by HSLPanelComponent.
+ * 
+ * Registrations are kept in an array that is replaced with compare-and-set on every change, so
+ * notifying iterates a snapshot without taking any lock.  Listeners are notified in registration
+ * order.  A listener registered without an executor is called on the notifying thread.  A listener
+ * registered with an executor (a thread pool, or a virtual thread per task executor on JDKs that
+ * have one) is called on that executor instead, with at most one delivery in flight: notifications
+ * arriving meanwhile are merged, and the listener only receives the latest value of each callback.
+ */
+class HSLPanelListenerRegistry
+{
+	private static final int HUE = 1;
+	private static final int SAT = 2;
+	private static final int LUM = 4;
+	private static final int COLOR = 8;
+	
+	private final AtomicReference<Registration[]> mRegistrations = new AtomicReference<Registration[]>(new Registration[0]);
+	
+	public void add(HSLPanelListener listener, Executor executor)
+	{
+		Registration registration = executor == null ? new Registration(listener) : new AsyncRegistration(listener, executor);
+		Registration[] current;
+		Registration[] next;
+		do{
+			current = this.mRegistrations.get();
+			next = Arrays.copyOf(current, current.length + 1);
+			next[current.length] = registration;
+		}while(!this.mRegistrations.compareAndSet(current, next));
+		return;
+	}
+	
+	/**
+	 * Removes the first registration of the given listener, if any.
+	 */
+	public void remove(HSLPanelListener listener)
+	{
+		Registration[] current;
+		Registration[] next;
+		do{
+			current = this.mRegistrations.get();
+			int index = -1;
+			for(int i = 0; i < current.length; i++)
+			{
+				if(current[i].mListener.equals(listener)){
+					index = i;
+					break;
+				}
+			}
+			if(index < 0){
+				return;
+			}
+			next = new Registration[current.length - 1];
+			System.arraycopy(current, 0, next, 0, index);
+			System.arraycopy(current, index + 1, next, index, next.length - index);
+		}while(!this.mRegistrations.compareAndSet(current, next));
+		return;
+	}
+	
+	public int size()
+	{
+		return this.mRegistrations.get().length;
+	}
+	
+	public void fireHueChanged(float value)
+	{
+		for(Registration registration : this.mRegistrations.get())
+		{
+			registration.deliver(HUE, value, 0F, 0F, false);
+		}
+		return;
+	}
+	
+	public void fireSatChanged(float value)
+	{
+		for(Registration registration : this.mRegistrations.get())
+		{
+			registration.deliver(SAT, 0F, value, 0F, false);
+		}
+		return;
+	}
+	
+	public void fireLumChanged(float value)
+	{
+		for(Registration registration : this.mRegistrations.get())
+		{
+			registration.deliver(LUM, 0F, 0F, value, false);
+		}
+		return;
+	}
+	
+	public void fireColorChanged(float hue, float sat, float lum, boolean adjusting)
+	{
+		for(Registration registration : this.mRegistrations.get())
+		{
+			registration.deliver(COLOR, hue, sat, lum, adjusting);
+		}
+		return;
+	}
+	
+	private static class Registration
+	{
+		protected final HSLPanelListener mListener;
+		
+		public Registration(HSLPanelListener listener)
+		{
+			this.mListener = listener;
+		}
+		
+		public void deliver(int kind, float hue, float sat, float lum, boolean adjusting)
+		{
+			this.dispatch(kind, hue, sat, lum, adjusting);
+			return;
+		}
+		
+		protected void dispatch(int kinds, float hue, float sat, float lum, boolean adjusting)
+		{
+			if((kinds & HUE) != 0){
+				this.mListener.hueChanged(hue);
+			}
+			if((kinds & SAT) != 0){
+				this.mListener.saturationChanged(sat);
+			}
+			if((kinds & LUM) != 0){
+				this.mListener.luminanceChanged(lum);
+			}
+			if((kinds & COLOR) != 0){
+				this.mListener.colorChanged(hue, sat, lum, adjusting);
+			}
+			return;
+		}
+	}
+	
+	private static class AsyncRegistration extends Registration implements Runnable
+	{
+		private final Executor mExecutor;
+		private final AtomicReference<Pending> mPending = new AtomicReference<Pending>();
+		private final AtomicBoolean mScheduled = new AtomicBoolean(false);
+		
+		public AsyncRegistration(HSLPanelListener listener, Executor executor)
+		{
+			super(listener);
+			this.mExecutor = executor;
+		}
+		
+		@Override
+		public void deliver(int kind, float hue, float sat, float lum, boolean adjusting)
+		{
+			Pending current;
+			Pending next;
+			do{
+				current = this.mPending.get();
+				next = current == null ? new Pending(kind, hue, sat, lum, adjusting) : current.merge(kind, hue, sat, lum, adjusting);
+			}while(!this.mPending.compareAndSet(current, next));
+			this.schedule();
+			return;
+		}
+		
+		private void schedule()
+		{
+			if(this.mPending.get() == null || !this.mScheduled.compareAndSet(false, true)){
+				return;
+			}
+			try{
+				this.mExecutor.execute(this);
+			}catch(RuntimeException ex){
+				this.mScheduled.set(false);
+				throw ex;
+			}
+			return;
+		}
+		
+		@Override
+		public void run()
+		{
+			try{
+				Pending pending = this.mPending.getAndSet(null);
+				if(pending != null){
+					this.dispatch(pending.mKinds, pending.mHue, pending.mSat, pending.mLum, pending.mAdjusting);
+				}
+			}finally{
+				this.mScheduled.set(false);
+			}
+			this.schedule();
+			return;
+		}
+	}
+	
+	/**
+	 * Latest values not yet delivered to an asynchronous listener, with one bit per callback owed.
+	 */
+	private static class Pending
+	{
+		private final int mKinds;
+		private final float mHue;
+		private final float mSat;
+		private final float mLum;
+		private final boolean mAdjusting;
+		
+		public Pending(int kinds, float hue, float sat, float lum, boolean adjusting)
+		{
+			this.mKinds = kinds;
+			this.mHue = hue;
+			this.mSat = sat;
+			this.mLum = lum;
+			this.mAdjusting = adjusting;
+		}
+		
+		public Pending merge(int kind, float hue, float sat, float lum, boolean adjusting)
+		{
+			switch(kind)
+			{
+				case HUE:
+					return new Pending(this.mKinds | kind, hue, this.mSat, this.mLum, this.mAdjusting);
+				case SAT:
+					return new Pending(this.mKinds | kind, this.mHue, sat, this.mLum, this.mAdjusting);
+				case LUM:
+					return new Pending(this.mKinds | kind, this.mHue, this.mSat, lum, this.mAdjusting);
+				default:
+					return new Pending(this.mKinds | kind, hue, sat, lum, adjusting);
+			}
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package main.gui.custom;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Precomputed HSL to RGB table for bulk conversions that only need a limited precision per channel.
+ * 
+ * The table holds hueSteps x satSteps x lumSteps packed ARGB ints, so its footprint is
+ * 4 * hueSteps * satSteps * lumSteps bytes (see getMemoryFootprint):
+ * 360 x 256 x 256 takes 90 MiB, 360 x 64 x 64 takes 5.6 MiB and 90 x 32 x 32 takes 360 KiB.
+ * Hue samples are spread over [0, 1) and wrap around, while saturation and luminance samples
+ * include both 0 and 1.  Lookups either take the nearest sample or, for the smaller tables,
+ * interpolate trilinearly between the eight surrounding samples.
+ * 
+ * Nothing is computed until build or buildAsync is called, and isBuilt only reports true once the
+ * whole table is visible to other threads.  HSLPanelModel ignores a table that is not built yet.
+ */
+public class HSLPanelLookupTable
+{
+	private final int mHueSteps;
+	private final int mSatSteps;
+	private final int mLumSteps;
+	private final boolean mInterpolated;
+	private int[] mTable = null;
+	private volatile boolean mBuilt = false;
+	
+	public HSLPanelLookupTable(int hueSteps, int satSteps, int lumSteps, boolean interpolated)
+	{
+		if(hueSteps < 1 || satSteps < 2 || lumSteps < 2){
+			throw new IllegalArgumentException("Expecting at least 1 hue step and 2 saturation and luminance steps.  Received: " + hueSteps + ", " + satSteps + ", " + lumSteps);
+		}
+		if((long)hueSteps * satSteps * lumSteps > Integer.MAX_VALUE){
+			throw new IllegalArgumentException("Table too large: " + hueSteps + " x " + satSteps + " x " + lumSteps);
+		}
+		this.mHueSteps = hueSteps;
+		this.mSatSteps = satSteps;
+		this.mLumSteps = lumSteps;
+		this.mInterpolated = interpolated;
+	}
+	
+	public int getHueSteps()
+	{
+		return this.mHueSteps;
+	}
+	
+	public int getSatSteps()
+	{
+		return this.mSatSteps;
+	}
+	
+	public int getLumSteps()
+	{
+		return this.mLumSteps;
+	}
+	
+	public boolean isInterpolated()
+	{
+		return this.mInterpolated;
+	}
+	
+	/**
+	 * Returns the size of the table, in bytes, once built.
+	 */
+	public long getMemoryFootprint()
+	{
+		return 4L * this.mHueSteps * this.mSatSteps * this.mLumSteps;
+	}
+	
+	public boolean isBuilt()
+	{
+		return this.mBuilt;
+	}
+	
+	/**
+	 * Computes the table on the calling thread.  Does nothing if it is already built.
+	 */
+	public synchronized void build()
+	{
+		if(this.mBuilt){
+			return;
+		}
+		HSLPanelModel model = new HSLPanelModel();
+		int[] table = new int[this.mHueSteps * this.mSatSteps * this.mLumSteps];
+		int index = 0;
+		for(int h = 0; h < this.mHueSteps; h++)
+		{
+			float hue = h / (float)this.mHueSteps;
+			for(int l = 0; l < this.mLumSteps; l++)
+			{
+				float lum = l / (float)(this.mLumSteps - 1);
+				for(int s = 0; s < this.mSatSteps; s++)
+				{
+					table[index++] = model.getPackedRGBfromHSL(hue, s / (float)(this.mSatSteps - 1), lum);
+				}
+			}
+		}
+		this.mTable = table;
+		this.mBuilt = true;
+		return;
+	}
+	
+	/**
+	 * Computes the table on the given executor.  The returned future completes with this table.
+	 */
+	public CompletableFuture<HSLPanelLookupTable> buildAsync(Executor executor)
+	{
+		return CompletableFuture.supplyAsync(() -> {
+			this.build();
+			return this;
+		}, executor);
+	}
+	
+	/**
+	 * Returns the packed ARGB value for the given color.  The table must be built.
+	 */
+	public int getPackedRGB(float h, float s, float l)
+	{
+		if(!this.mBuilt){
+			throw new IllegalStateException("Lookup table has not been built.");
+		}
+		return this.mInterpolated ? this.interpolate(h, s, l) : this.nearest(h, s, l);
+	}
+	
+	/**
+	 * Table equivalent of HSLPanelModel.fillSLRow.  The table must be built.
+	 */
+	public void fillSLRow(float h, float l, int[] dest, int offset, int width)
+	{
+		if(!this.mBuilt){
+			throw new IllegalStateException("Lookup table has not been built.");
+		}
+		for(int x = 0; x < width; x++)
+		{
+			float s = x / (float)width;
+			dest[offset + x] = this.mInterpolated ? this.interpolate(h, s, l) : this.nearest(h, s, l);
+		}
+		return;
+	}
+	
+	private int nearest(float h, float s, float l)
+	{
+		int hi = Math.floorMod(Math.round(h * this.mHueSteps), this.mHueSteps);
+		int si = this.clamp(Math.round(s * (this.mSatSteps - 1)), this.mSatSteps - 1);
+		int li = this.clamp(Math.round(l * (this.mLumSteps - 1)), this.mLumSteps - 1);
+		return this.mTable[((hi * this.mLumSteps) + li) * this.mSatSteps + si];
+	}
+	
+	private int interpolate(float h, float s, float l)
+	{
+		float hf = h * this.mHueSteps;
+		float sf = Math.max(0.0F, Math.min(s, 1.0F)) * (this.mSatSteps - 1);
+		float lf = Math.max(0.0F, Math.min(l, 1.0F)) * (this.mLumSteps - 1);
+		int h0 = (int)Math.floor(hf);
+		int s0 = Math.min((int)sf, this.mSatSteps - 2);
+		int l0 = Math.min((int)lf, this.mLumSteps - 2);
+		float ht = hf - h0;
+		float st = sf - s0;
+		float lt = lf - l0;
+		int ha = Math.floorMod(h0, this.mHueSteps) * this.mLumSteps;
+		int hb = Math.floorMod(h0 + 1, this.mHueSteps) * this.mLumSteps;
+		
+		int result = 0xFF000000;
+		for(int shift = 0; shift <= 16; shift += 8)
+		{
+			float a = this.lerp(this.channel(ha, l0, s0, shift), this.channel(ha, l0, s0 + 1, shift), st);
+			float b = this.lerp(this.channel(ha, l0 + 1, s0, shift), this.channel(ha, l0 + 1, s0 + 1, shift), st);
+			float c = this.lerp(this.channel(hb, l0, s0, shift), this.channel(hb, l0, s0 + 1, shift), st);
+			float d = this.lerp(this.channel(hb, l0 + 1, s0, shift), this.channel(hb, l0 + 1, s0 + 1, shift), st);
+			float value = this.lerp(this.lerp(a, b, lt), this.lerp(c, d, lt), ht);
+			result |= this.clamp(Math.round(value), 255) << shift;
+		}
+		return result;
+	}
+	
+	private int channel(int hueRow, int l, int s, int shift)
+	{
+		return (this.mTable[(hueRow + l) * this.mSatSteps + s] >> shift) & 0xff;
+	}
+	
+	private float lerp(float a, float b, float t)
+	{
+		return a + (b - a) * t;
+	}
+	
+	private int clamp(int value, int upperBound)
+	{
+		return (value < 0) ? 0 : (value > upperBound) ? upperBound : value;
+	}
+}
@@ -0,0 +1,320 @@
+package main.gui.custom;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Opt-in paint instrumentation for HSLPanelComponent (see HSLPanelComponent.setMetrics).
+ * 
+ * Records the duration of each paint stage in a histogram with four buckets per power of two, so
+ * percentiles are accurate to within 25%, along with the number of repaints and the hit rates of
+ * the ring layer and SL image caches.  Each stage gets at most one sample per paint: clearing the
+ * component, drawing the cached ring layer, the SL graph and each caret, and, only on the paints
+ * that need it, rebuilding the ring layer with its background.  Values can be read with
+ * getSnapshot or through JMX once registered.  Recording is lock-free and safe to read from any
+ * thread.
+ */
+public class HSLPanelMetrics implements HSLPanelMetricsMXBean
+{
+	public static final int STAGE_CLEAR = 0;
+	public static final int STAGE_RING_LAYER = 1;
+	public static final int STAGE_SL_GRAPH = 2;
+	public static final int STAGE_HUE_CARET = 3;
+	public static final int STAGE_SL_CARET = 4;
+	public static final int STAGE_RING_LAYER_BUILD = 5;
+	private static final String[] STAGE_NAMES = new String[]{"clearBackground", "drawRingLayer", "renderSLGraph", "renderHueCaret", "renderSLCaret", "buildRingLayer"};
+	private static final String DOMAIN = "main.gui.custom";
+	
+	private final Histogram[] mStages = new Histogram[STAGE_NAMES.length];
+	private final AtomicLong mRepaints = new AtomicLong();
+	private final AtomicLong mRingHits = new AtomicLong();
+	private final AtomicLong mRingMisses = new AtomicLong();
+	private final AtomicLong mSLHits = new AtomicLong();
+	private final AtomicLong mSLMisses = new AtomicLong();
+	private ObjectName mObjectName = null;
+	
+	public HSLPanelMetrics()
+	{
+		for(int i = 0; i < this.mStages.length; i++)
+		{
+			this.mStages[i] = new Histogram();
+		}
+	}
+	
+	public void recordStage(int stage, long nanos)
+	{
+		this.mStages[stage].record(nanos);
+		return;
+	}
+	
+	public void recordRepaint()
+	{
+		this.mRepaints.incrementAndGet();
+		return;
+	}
+	
+	public void recordRingCache(boolean hit)
+	{
+		(hit ? this.mRingHits : this.mRingMisses).incrementAndGet();
+		return;
+	}
+	
+	public void recordSLCache(boolean hit)
+	{
+		(hit ? this.mSLHits : this.mSLMisses).incrementAndGet();
+		return;
+	}
+	
+	/**
+	 * Registers these metrics with the platform MBean server as
+	 * main.gui.custom:type=HSLPanel,name=(name).
+	 */
+	public synchronized void register(String name) throws JMException
+	{
+		if(this.mObjectName != null){
+			throw new IllegalStateException("Already registered as " + this.mObjectName);
+		}
+		ObjectName objectName = new ObjectName(DOMAIN + ":type=HSLPanel,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		this.mObjectName = objectName;
+		return;
+	}
+	
+	public synchronized void unregister() throws JMException
+	{
+		if(this.mObjectName == null){
+			return;
+		}
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.mObjectName);
+		this.mObjectName = null;
+		return;
+	}
+	
+	public Snapshot getSnapshot()
+	{
+		return new Snapshot(this.getRepaintCount(), this.getRingCacheHitRate(), this.getSLCacheHitRate(), this.getStages());
+	}
+	
+	@Override
+	public long getRepaintCount()
+	{
+		return this.mRepaints.get();
+	}
+	
+	@Override
+	public double getRingCacheHitRate()
+	{
+		return this.hitRate(this.mRingHits.get(), this.mRingMisses.get());
+	}
+	
+	@Override
+	public double getSLCacheHitRate()
+	{
+		return this.hitRate(this.mSLHits.get(), this.mSLMisses.get());
+	}
+	
+	@Override
+	public Map<String, StageSnapshot> getStages()
+	{
+		Map<String, StageSnapshot> stages = new LinkedHashMap<String, StageSnapshot>();
+		for(int i = 0; i < this.mStages.length; i++)
+		{
+			stages.put(STAGE_NAMES[i], this.mStages[i].snapshot());
+		}
+		return stages;
+	}
+	
+	@Override
+	public void reset()
+	{
+		for(Histogram histogram : this.mStages)
+		{
+			histogram.reset();
+		}
+		this.mRepaints.set(0L);
+		this.mRingHits.set(0L);
+		this.mRingMisses.set(0L);
+		this.mSLHits.set(0L);
+		this.mSLMisses.set(0L);
+		return;
+	}
+	
+	private double hitRate(long hits, long misses)
+	{
+		return (hits + misses) == 0 ? 0.0 : hits / (double)(hits + misses);
+	}
+	
+	/**
+	 * Immutable copy of all metrics.
+	 */
+	public static final class Snapshot
+	{
+		private final long mRepaintCount;
+		private final double mRingCacheHitRate;
+		private final double mSLCacheHitRate;
+		private final Map<String, StageSnapshot> mStages;
+		
+		public Snapshot(long repaintCount, double ringCacheHitRate, double slCacheHitRate, Map<String, StageSnapshot> stages)
+		{
+			this.mRepaintCount = repaintCount;
+			this.mRingCacheHitRate = ringCacheHitRate;
+			this.mSLCacheHitRate = slCacheHitRate;
+			this.mStages = stages;
+		}
+		
+		public long getRepaintCount()
+		{
+			return this.mRepaintCount;
+		}
+		
+		public double getRingCacheHitRate()
+		{
+			return this.mRingCacheHitRate;
+		}
+		
+		public double getSLCacheHitRate()
+		{
+			return this.mSLCacheHitRate;
+		}
+		
+		public Map<String, StageSnapshot> getStages()
+		{
+			return this.mStages;
+		}
+	}
+	
+	/**
+	 * Immutable statistics of one paint stage, in microseconds.
+	 */
+	public static final class StageSnapshot
+	{
+		private final long mCount;
+		private final double mP50;
+		private final double mP99;
+		private final double mMax;
+		
+		@java.beans.ConstructorProperties({"count", "p50", "p99", "max"})
+		public StageSnapshot(long count, double p50, double p99, double max)
+		{
+			this.mCount = count;
+			this.mP50 = p50;
+			this.mP99 = p99;
+			this.mMax = max;
+		}
+		
+		public long getCount()
+		{
+			return this.mCount;
+		}
+		
+		public double getP50()
+		{
+			return this.mP50;
+		}
+		
+		public double getP99()
+		{
+			return this.mP99;
+		}
+		
+		public double getMax()
+		{
+			return this.mMax;
+		}
+		
+		@Override
+		public String toString()
+		{
+			return String.format(java.util.Locale.ROOT, "count=%d p50=%.1fus p99=%.1fus max=%.1fus", this.mCount, this.mP50, this.mP99, this.mMax);
+		}
+	}
+	
+	/**
+	 * Log-linear histogram of nanosecond durations: values below 4 get their own bucket, larger values
+	 * fall into one of four buckets per power of two.
+	 */
+	private static class Histogram
+	{
+		private static final int BUCKETS = 256;
+		
+		private final AtomicLongArray mCounts = new AtomicLongArray(BUCKETS);
+		private final AtomicLong mMax = new AtomicLong();
+		
+		public void record(long nanos)
+		{
+			if(nanos < 0){
+				nanos = 0;
+			}
+			this.mCounts.incrementAndGet(this.bucket(nanos));
+			long max;
+			do{
+				max = this.mMax.get();
+			}while(nanos > max && !this.mMax.compareAndSet(max, nanos));
+			return;
+		}
+		
+		public void reset()
+		{
+			for(int i = 0; i < BUCKETS; i++)
+			{
+				this.mCounts.set(i, 0L);
+			}
+			this.mMax.set(0L);
+			return;
+		}
+		
+		public StageSnapshot snapshot()
+		{
+			long[] counts = new long[BUCKETS];
+			long total = 0;
+			for(int i = 0; i < BUCKETS; i++)
+			{
+				counts[i] = this.mCounts.get(i);
+				total += counts[i];
+			}
+			long max = this.mMax.get();
+			return new StageSnapshot(total, this.percentile(counts, total, 0.5, max) / 1000.0, this.percentile(counts, total, 0.99, max) / 1000.0, max / 1000.0);
+		}
+		
+		private int bucket(long value)
+		{
+			if(value < 4){
+				return (int)value;
+			}
+			int exponent = 63 - Long.numberOfLeadingZeros(value);
+			return (exponent * 4) + (int)((value >>> (exponent - 2)) & 3);
+		}
+		
+		private long upperBound(int bucket)
+		{
+			if(bucket < 4){
+				return bucket;
+			}
+			int exponent = bucket / 4;
+			return ((4L + (bucket % 4) + 1) << (exponent - 2)) - 1;
+		}
+		
+		private long percentile(long[] counts, long total, double fraction, long max)
+		{
+			if(total == 0){
+				return 0L;
+			}
+			long rank = (long)Math.ceil(total * fraction);
+			long seen = 0;
+			for(int i = 0; i < BUCKETS; i++)
+			{
+				seen += counts[i];
+				if(seen >= rank){
+					return Math.min(this.upperBound(i), max);
+				}
+			}
+			return max;
+		}
+	}
+}
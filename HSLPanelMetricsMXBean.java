@@ -0,0 +1,16 @@
+package main.gui.custom;
+
+import java.util.Map;
+
+/**
+ * JMX view of HSLPanelMetrics.  Stage statistics are keyed by stage name and expressed in
+ * microseconds.
+ */
+public interface HSLPanelMetricsMXBean
+{
+	abstract long getRepaintCount();
+	abstract double getRingCacheHitRate();
+	abstract double getSLCacheHitRate();
+	abstract Map<String, HSLPanelMetrics.StageSnapshot> getStages();
+	abstract void reset();
+}
@@ -5,14 +5,73 @@ import java.awt.Color;
 public class HSLPanelModel
 {
 	public static final float PI2 = (float)Math.PI * 2.0F;
+	private static final String VECTOR_MODULE = "jdk.incubator.vector";
+	private static final String VECTOR_KERNEL_CLASS = "main.gui.custom.HSLPanelVectorKernel";
+	private static final SLRowKernel VECTOR_KERNEL = loadVectorKernel();
 	
 	private float mCurrentHue = 0F;
 	private float mCurrentSat = 0F;
 	private float mCurrentLum = 0F;
+	private long mVersion = 0L;
+	private boolean mVectorized = VECTOR_KERNEL != null;
+	private HSLPanelLookupTable mLookupTable = null;
+	
+	/**
+	 * Looks up the Vector API row kernel, which is only usable when the incubator module has been
+	 * added to the boot layer.  Returns null, and the scalar path is used, in every other case.
+	 */
+	private static SLRowKernel loadVectorKernel()
+	{
+		if(!ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()){
+			return null;
+		}
+		try{
+			return (SLRowKernel)Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+		}catch(Throwable ex){
+			return null;
+		}
+	}
+	
+	public static boolean isVectorKernelAvailable()
+	{
+		return VECTOR_KERNEL != null;
+	}
+	
+	/**
+	 * Selects the Vector API kernel for fillSLRow and the bulk fill methods built on it.  Has no
+	 * effect when the kernel is not available.
+	 */
+	public void setVectorized(boolean vectorized)
+	{
+		this.mVectorized = vectorized && VECTOR_KERNEL != null;
+		return;
+	}
+	
+	public boolean isVectorized()
+	{
+		return this.mVectorized;
+	}
+	
+	/**
+	 * Lets the bulk conversions (the float[] form of getPackedRGBfromHSL and the fillSL methods) read
+	 * from a precomputed table instead of converting each color.  The table is only consulted once it
+	 * has been built.  Pass null to go back to exact conversion.
+	 */
+	public void setLookupTable(HSLPanelLookupTable table)
+	{
+		this.mLookupTable = table;
+		return;
+	}
+	
+	public HSLPanelLookupTable getLookupTable()
+	{
+		return this.mLookupTable;
+	}
 	
 	public void setCurrentHue(float value)
 	{
 		this.mCurrentHue = value;
+		this.mVersion++;
 		return;
 	}
 	
@@ -24,6 +83,7 @@ public class HSLPanelModel
 	public void setCurrentSat(float value)
 	{
 		this.mCurrentSat = value;
+		this.mVersion++;
 		return;
 	}
 	
@@ -35,6 +95,7 @@ public class HSLPanelModel
 	public void setCurrentLum(float value)
 	{
 		this.mCurrentLum = value;
+		this.mVersion++;
 		return;
 	}
 	
@@ -43,7 +104,58 @@ public class HSLPanelModel
 		return this.mCurrentLum;
 	}
 	
+	/**
+	 * Sets hue, saturation and luminance as a single update.
+	 */
+	public void setCurrent(float hue, float sat, float lum)
+	{
+		this.mCurrentHue = hue;
+		this.mCurrentSat = sat;
+		this.mCurrentLum = lum;
+		this.mVersion++;
+		return;
+	}
+	
+	/**
+	 * Returns a number that increases with every update, so that caches can tell whether the color
+	 * may have changed without comparing it.
+	 */
+	public long getVersion()
+	{
+		return this.mVersion;
+	}
+	
+	/**
+	 * Returns the current color and version.  This model is meant to be confined to one thread;
+	 * HSLPanelAtomicModel guarantees the three values belong to the same update.
+	 */
+	public Snapshot getSnapshot()
+	{
+		return new Snapshot(this.mCurrentHue, this.mCurrentSat, this.mCurrentLum, this.mVersion);
+	}
+	
+	/**
+	 * Sets the color only if the model has not been updated since expected was taken.
+	 */
+	public boolean compareAndSet(Snapshot expected, float hue, float sat, float lum)
+	{
+		if(expected.getVersion() != this.mVersion){
+			return false;
+		}
+		this.setCurrent(hue, sat, lum);
+		return true;
+	}
+	
 	public Color getRGBfromHSL(float h, float s, float l)
+	{
+		return new Color(this.getPackedRGBfromHSL(h, s, l));
+	}
+	
+	/**
+	 * Same conversion as getRGBfromHSL, returned as a packed 0xAARRGGBB int (alpha is always 0xFF)
+	 * so that no Color needs to be allocated.
+	 */
+	public int getPackedRGBfromHSL(float h, float s, float l)
 	{
 		float r = 0;
 		float g = 0;
@@ -61,15 +173,124 @@ public class HSLPanelModel
 			b = this.hueToRGB(p, q, h - 1.0F/3.0F);
 		}
 		
-		int rOut = (int)Math.round(r * 255);
-		int gOut = (int)Math.round(g * 255);
-		int bOut = (int)Math.round(b * 255);
+		return 0xFF000000 | (this.toChannel(r) << 16) | (this.toChannel(g) << 8) | this.toChannel(b);
+	}
+	
+	/**
+	 * Converts count consecutive h, s, l triples starting at src[srcOffset] into packed ARGB values
+	 * written to dest starting at destOffset.
+	 */
+	public void getPackedRGBfromHSL(float[] src, int srcOffset, int[] dest, int destOffset, int count)
+	{
+		HSLPanelLookupTable table = this.mLookupTable;
+		if(table != null && table.isBuilt()){
+			for(int i = 0; i < count; i++)
+			{
+				int index = srcOffset + (i * 3);
+				dest[destOffset + i] = table.getPackedRGB(src[index], src[index + 1], src[index + 2]);
+			}
+			return;
+		}
+		for(int i = 0; i < count; i++)
+		{
+			int index = srcOffset + (i * 3);
+			dest[destOffset + i] = this.getPackedRGBfromHSL(src[index], src[index + 1], src[index + 2]);
+		}
+		return;
+	}
+	
+	/**
+	 * The inverse of getPackedRGBfromHSL: writes the hue, saturation and luminance of a packed RGB value,
+	 * each between 0 and 1, to dest[offset] through dest[offset + 2].  Alpha is ignored, and grays get a
+	 * hue and saturation of 0.
+	 */
+	public void getHSLfromPackedRGB(int rgb, float[] dest, int offset)
+	{
+		int r = (rgb >> 16) & 0xFF;
+		int g = (rgb >> 8) & 0xFF;
+		int b = rgb & 0xFF;
+		int max = Math.max(r, Math.max(g, b));
+		int min = Math.min(r, Math.min(g, b));
+		int sum = max + min;
+		int delta = max - min;
+		float h = 0.0F;
+		float s = 0.0F;
 		
-		rOut = this.clamp(0, 255, rOut);
-		gOut = this.clamp(0, 255, gOut);
-		bOut = this.clamp(0, 255, bOut);
+		if(delta != 0){
+			s = sum > 255 ? delta / (float)(510 - sum) : delta / (float)sum;
+			if(max == r){
+				h = (g - b) / (float)delta + (g < b ? 6.0F : 0.0F);
+			}else if(max == g){
+				h = (b - r) / (float)delta + 2.0F;
+			}else{
+				h = (r - g) / (float)delta + 4.0F;
+			}
+			h /= 6.0F;
+		}
 		
-		return new Color(rOut, gOut, bOut);
+		dest[offset] = h;
+		dest[offset + 1] = s;
+		dest[offset + 2] = sum / 510.0F;
+		return;
+	}
+	
+	/**
+	 * Converts count packed RGB values starting at src[srcOffset] into consecutive h, s, l triples
+	 * written to dest starting at destOffset, the inverse of the float[] form of getPackedRGBfromHSL.
+	 */
+	public void getHSLfromPackedRGB(int[] src, int srcOffset, float[] dest, int destOffset, int count)
+	{
+		for(int i = 0; i < count; i++)
+		{
+			this.getHSLfromPackedRGB(src[srcOffset + i], dest, destOffset + (i * 3));
+		}
+		return;
+	}
+	
+	/**
+	 * Fills one row of the saturation/luminance graph: width packed ARGB values for the given hue and
+	 * luminance, with saturation running from 0 to (width - 1) / width.
+	 */
+	public void fillSLRow(float h, float l, int[] dest, int offset, int width)
+	{
+		HSLPanelLookupTable table = this.mLookupTable;
+		if(table != null && table.isBuilt()){
+			table.fillSLRow(h, l, dest, offset, width);
+			return;
+		}
+		if(this.mVectorized){
+			VECTOR_KERNEL.fillSLRow(this, h, l, dest, offset, width);
+			return;
+		}
+		for(int x = 0; x < width; x++)
+		{
+			dest[offset + x] = this.getPackedRGBfromHSL(h, x / (float)width, l);
+		}
+		return;
+	}
+	
+	/**
+	 * Fills a width x height saturation/luminance graph for the given hue, with luminance running
+	 * down the rows.  Row y starts at dest[offset + y * stride].
+	 */
+	public void fillSLGraph(float h, int[] dest, int offset, int stride, int width, int height)
+	{
+		this.fillSLBand(h, dest, offset, stride, width, height, 0, height);
+		return;
+	}
+	
+	/**
+	 * Fills rows startRow (inclusive) to endRow (exclusive) of a width x height saturation/luminance
+	 * graph laid out as in fillSLGraph.  The conversion holds no state, so disjoint bands of the same
+	 * graph may be filled from different threads.
+	 */
+	public void fillSLBand(float h, int[] dest, int offset, int stride, int width, int height, int startRow, int endRow)
+	{
+		for(int y = startRow; y < endRow; y++)
+		{
+			this.fillSLRow(h, y / (float)height, dest, offset + (y * stride), width);
+		}
+		return;
 	}
 	
 	public float hueToRGB(float p, float q, float t)
@@ -92,6 +313,12 @@ public class HSLPanelModel
 		return p;
 	}
 	
+	private int toChannel(float value)
+	{
+		int channel = Math.round(value * 255);
+		return (channel < 0) ? 0 : (channel > 255) ? 255 : channel;
+	}
+	
 	public int clamp(int lowerBound, int upperBound, int value)
 	{
 		return (value < lowerBound) ? lowerBound : (value > upperBound) ? upperBound : value;
@@ -101,4 +328,51 @@ public class HSLPanelModel
 	{
 		return (value < lowerBound) ? lowerBound : (value > upperBound) ? upperBound : value;
 	}
+	
+	/**
+	 * Alternative implementation of fillSLRow that must produce identical pixels.
+	 */
+	interface SLRowKernel
+	{
+		abstract void fillSLRow(HSLPanelModel model, float h, float l, int[] dest, int offset, int width);
+	}
+	
+	/**
+	 * Immutable hue, saturation and luminance read in one step, with the model version it was read at.
+	 */
+	public static final class Snapshot
+	{
+		private final float mHue;
+		private final float mSat;
+		private final float mLum;
+		private final long mVersion;
+		
+		public Snapshot(float hue, float sat, float lum, long version)
+		{
+			this.mHue = hue;
+			this.mSat = sat;
+			this.mLum = lum;
+			this.mVersion = version;
+		}
+		
+		public float getHue()
+		{
+			return this.mHue;
+		}
+		
+		public float getSat()
+		{
+			return this.mSat;
+		}
+		
+		public float getLum()
+		{
+			return this.mLum;
+		}
+		
+		public long getVersion()
+		{
+			return this.mVersion;
+		}
+	}
 }
@@ -0,0 +1,325 @@
+package main.gui.custom;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Renders the hue ring, saturation/luminance graph and carets of an HSL panel into images, without any
+ * Swing component.  An engine holds no mutable state, so a single instance can render many images
+ * concurrently, for instance thumbnails produced on a server thread pool:
+ * 
+ *   BufferedImage image = engine.render(256, 256, hue, sat, lum, HSLPanelStyle.DEFAULT);
+ * 
+ * All sizes are in pixels of the target.  HSLPanelComponent draws through the same methods, so both
+ * produce the same pixels.
+ */
+public class HSLPanelRasterEngine
+{
+	static final float[] CONE_FRACTIONS = new float[]{0.083333F,
+																0.166666F,
+																0.25F,
+																0.333333F,
+																0.416666F,
+																0.5F,
+																0.583333F,
+																0.666666F,
+																0.75F,
+																0.833333F,
+																0.916666F,
+																1.0F};
+	
+	static final Color[] CONE_COLORS = new Color[]{new Color(255, 255,   0, 255),
+															new Color(255, 128,   0, 255),
+															new Color(255,   0,   0, 255),
+															new Color(255,   0, 128, 255),
+															new Color(255,   0, 255, 255),
+															new Color(128,   0, 255, 255),
+															new Color(  0,   0, 255, 255),
+															new Color(  0, 128, 255, 255),
+															new Color(  0, 255, 255, 255),
+															new Color(  0, 255, 128, 255),
+															new Color(  0, 255,   0, 255),
+															new Color(128, 255,   0, 255)};
+	private static final int MIN_BAND_HEIGHT = 16;
+	private static final int CARET_EXTENT = 7;
+	private static final BasicStroke BOTTOM_STROKE = new BasicStroke(2f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+	private static final BasicStroke TOP_STROKE = new BasicStroke(1.25f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+	private static final DirectColorModel RGB_MODEL = new DirectColorModel(24, 0xFF0000, 0x00FF00, 0x0000FF);
+	
+	private final HSLPanelModel mConverter;
+	
+	public HSLPanelRasterEngine()
+	{
+		this(new HSLPanelModel());
+	}
+	
+	/**
+	 * Creates an engine converting colors with the given model, so that its lookup table and
+	 * vectorization settings apply.  Only the model's conversion methods are used, never its current
+	 * color.
+	 */
+	public HSLPanelRasterEngine(HSLPanelModel converter)
+	{
+		if(converter == null){
+			throw new IllegalArgumentException("Expecting a model.");
+		}
+		this.mConverter = converter;
+	}
+	
+	public HSLPanelModel getConverter()
+	{
+		return this.mConverter;
+	}
+	
+	/**
+	 * Returns a new TYPE_INT_RGB image of the whole panel for the given color.
+	 */
+	public BufferedImage render(int width, int height, float hue, float sat, float lum, HSLPanelStyle style)
+	{
+		if(width <= 0 || height <= 0){
+			throw new IllegalArgumentException("Expecting a positive size.  Received: " + width + "x" + height);
+		}
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		this.render(image, hue, sat, lum, style);
+		return image;
+	}
+	
+	/**
+	 * Renders the whole panel into dest as packed RGB pixels, row after row, width pixels per row.
+	 */
+	public void render(int[] dest, int width, int height, float hue, float sat, float lum, HSLPanelStyle style)
+	{
+		if(width <= 0 || height <= 0){
+			throw new IllegalArgumentException("Expecting a positive size.  Received: " + width + "x" + height);
+		}
+		if(dest.length < width * height){
+			throw new IllegalArgumentException("Expecting at least " + (width * height) + " pixels.  Received: " + dest.length);
+		}
+		DataBufferInt buffer = new DataBufferInt(dest, width * height);
+		WritableRaster raster = Raster.createPackedRaster(buffer, width, height, width, RGB_MODEL.getMasks(), null);
+		this.render(new BufferedImage(RGB_MODEL, raster, false, null), hue, sat, lum, style);
+		return;
+	}
+	
+	/**
+	 * Renders the whole panel over the given image.  The SL graph is written straight into the pixel
+	 * array of integer RGB and ARGB images, and drawn from an intermediate image otherwise.
+	 */
+	public void render(BufferedImage image, float hue, float sat, float lum, HSLPanelStyle style)
+	{
+		this.render(image, 0, image.getWidth(), image.getHeight(), hue, sat, lum, style);
+		return;
+	}
+	
+	/**
+	 * Renders the rows of a width by height panel starting at originY into the given image, which must
+	 * be width pixels wide.  A panel too large to be held in memory can then be produced band by band.
+	 */
+	public void render(BufferedImage image, int originY, int width, int height, float hue, float sat, float lum, HSLPanelStyle style)
+	{
+		if(image.getWidth() != width){
+			throw new IllegalArgumentException("Expecting an image " + width + " pixels wide.  Received: " + image.getWidth());
+		}
+		HSLPanelGeometry geometry = new HSLPanelGeometry(width, height, style.getRingThickness());
+		Rectangle slBounds = geometry.getSLBounds();
+		int startRow = Math.max(slBounds.y, originY);
+		int endRow = Math.min(slBounds.y + slBounds.height, originY + image.getHeight());
+		Graphics2D g2d = image.createGraphics();
+		try{
+			g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			g2d.translate(0, -originY);
+			this.renderBackground(g2d, width, height, style);
+			this.renderHueRing(g2d, geometry, style);
+			if(slBounds.width > 0 && startRow < endRow){
+				WritableRaster raster = image.getRaster();
+				if(isPackedRGB(image)){
+					SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel)raster.getSampleModel();
+					int stride = model.getScanlineStride();
+					int offset = raster.getDataBuffer().getOffset() + model.getOffset(slBounds.x - raster.getSampleModelTranslateX(), slBounds.y - originY - raster.getSampleModelTranslateY());
+					int[] data = ((DataBufferInt)raster.getDataBuffer()).getData();
+					this.mConverter.fillSLBand(hue, data, offset, stride, slBounds.width, slBounds.height, startRow - slBounds.y, endRow - slBounds.y);
+				}else{
+					BufferedImage graph = new BufferedImage(slBounds.width, endRow - startRow, BufferedImage.TYPE_INT_RGB);
+					int[] data = ((DataBufferInt)graph.getRaster().getDataBuffer()).getData();
+					int offset = -(startRow - slBounds.y) * slBounds.width;
+					this.mConverter.fillSLBand(hue, data, offset, slBounds.width, slBounds.width, slBounds.height, startRow - slBounds.y, endRow - slBounds.y);
+					g2d.drawImage(graph, slBounds.x, startRow, null);
+				}
+			}
+			this.renderCaret(g2d, geometry.getHueCaretLocation(hue), style);
+			this.renderCaret(g2d, geometry.getSLCaretLocation(sat, lum), style);
+		}finally{
+			g2d.dispose();
+		}
+		return;
+	}
+	
+	/**
+	 * Returns true when the pixels of image are 0xRRGGBB or non premultiplied 0xAARRGGBB ints that can
+	 * be written directly.
+	 */
+	static boolean isPackedRGB(BufferedImage image)
+	{
+		if(!(image.getRaster().getDataBuffer() instanceof DataBufferInt) || !(image.getSampleModel() instanceof SinglePixelPackedSampleModel)){
+			return false;
+		}
+		if(!(image.getColorModel() instanceof DirectColorModel)){
+			return false;
+		}
+		DirectColorModel model = (DirectColorModel)image.getColorModel();
+		return model.getRedMask() == 0xFF0000 && model.getGreenMask() == 0x00FF00 && model.getBlueMask() == 0x0000FF &&
+				(model.getAlphaMask() == 0 || (model.getAlphaMask() == 0xFF000000 && !model.isAlphaPremultiplied()));
+	}
+	
+	/**
+	 * Fills the background and draws the hue ring, in user space, for a panel of the given size.
+	 */
+	public void renderRingLayer(Graphics2D g2d, int width, int height, HSLPanelStyle style)
+	{
+		this.renderBackground(g2d, width, height, style);
+		this.renderHueRing(g2d, new HSLPanelGeometry(width, height, style.getRingThickness()), style);
+		return;
+	}
+	
+	public void renderBackground(Graphics2D g2d, int width, int height, HSLPanelStyle style)
+	{
+		g2d.setPaint(style.getBackground());
+		g2d.fillRect(0, 0, width, height);
+		return;
+	}
+	
+	/**
+	 * Draws the hue ring over the background.  The gradient only covers the ring itself, with
+	 * antialiased edges, so the hole needs no second pass.
+	 */
+	public void renderHueRing(Graphics2D g2d, HSLPanelGeometry geometry, HSLPanelStyle style)
+	{
+		int offset = geometry.getOffset();
+		int diameter = geometry.getWidth() - (offset * 2);
+		HSLPanelGradient gradient = new HSLPanelGradient(new Point2D.Double(geometry.getCenterX(), geometry.getCenterY()), geometry.getInnerRadius(), geometry.getOuterRadius(), CONE_FRACTIONS, CONE_COLORS);
+		g2d.setPaint(gradient);
+		g2d.fillRect(offset, offset, diameter, diameter);
+		return;
+	}
+	
+	/**
+	 * Fills a TYPE_INT_RGB or TYPE_INT_ARGB image with the SL graph; see the array form.
+	 */
+	public boolean fillSLGraph(BufferedImage image, float hue, ForkJoinPool pool, int parallelThreshold, BooleanSupplier cancelled)
+	{
+		int width = image.getWidth();
+		int height = image.getHeight();
+		int[] data = ((DataBufferInt)image.getRaster().getDataBuffer()).getData();
+		return this.fillSLGraph(data, 0, width, width, height, hue, pool, parallelThreshold, cancelled);
+	}
+	
+	/**
+	 * Writes the SL graph for the given hue into dest and returns true, or returns false as soon as
+	 * cancelled reports true, leaving the graph partially written.  Graphs of at least
+	 * parallelThreshold pixels are rendered in row bands on the pool, when one with more than a
+	 * single thread is given.
+	 */
+	public boolean fillSLGraph(int[] dest, int offset, int stride, int width, int height, float hue, ForkJoinPool pool, int parallelThreshold, BooleanSupplier cancelled)
+	{
+		if(pool == null || pool.getParallelism() < 2 || (width * height) < parallelThreshold){
+			for(int y = 0; y < height; y += MIN_BAND_HEIGHT)
+			{
+				if(cancelled.getAsBoolean()){
+					return false;
+				}
+				this.mConverter.fillSLBand(hue, dest, offset, stride, width, height, y, Math.min(y + MIN_BAND_HEIGHT, height));
+			}
+		}else{
+			int bandHeight = Math.max(MIN_BAND_HEIGHT, height / (pool.getParallelism() * 4));
+			pool.invoke(new SLBandTask(this.mConverter, hue, dest, offset, stride, width, height, 0, height, bandHeight, cancelled));
+			if(cancelled.getAsBoolean()){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Draws a caret centered on location, such as HSLPanelGeometry.getHueCaretLocation or
+	 * getSLCaretLocation.
+	 */
+	public void renderCaret(Graphics2D g2d, Point location, HSLPanelStyle style)
+	{
+		g2d.setStroke(BOTTOM_STROKE);
+		g2d.setPaint(style.getCaretHighlight());
+		g2d.drawOval(location.x - 5, location.y - 5, 10, 10);
+		g2d.setStroke(TOP_STROKE);
+		g2d.setPaint(style.getCaretShadow());
+		g2d.drawOval(location.x - 4, location.y - 4, 8, 8);
+		return;
+	}
+	
+	/**
+	 * Returns the area covered by a caret centered on location, including its stroke and antialiasing.
+	 */
+	public Rectangle getCaretBounds(Point location)
+	{
+		return new Rectangle(location.x - CARET_EXTENT, location.y - CARET_EXTENT, (CARET_EXTENT * 2) + 1, (CARET_EXTENT * 2) + 1);
+	}
+	
+	@SuppressWarnings("serial")
+	private static class SLBandTask extends RecursiveAction
+	{
+		private final HSLPanelModel mConverter;
+		private final float mHue;
+		private final int[] mData;
+		private final int mOffset;
+		private final int mStride;
+		private final int mWidth;
+		private final int mHeight;
+		private final int mStartRow;
+		private final int mEndRow;
+		private final int mBandHeight;
+		private final BooleanSupplier mCancelled;
+		
+		public SLBandTask(HSLPanelModel converter, float hue, int[] data, int offset, int stride, int width, int height, int startRow, int endRow, int bandHeight, BooleanSupplier cancelled)
+		{
+			this.mConverter = converter;
+			this.mHue = hue;
+			this.mData = data;
+			this.mOffset = offset;
+			this.mStride = stride;
+			this.mWidth = width;
+			this.mHeight = height;
+			this.mStartRow = startRow;
+			this.mEndRow = endRow;
+			this.mBandHeight = bandHeight;
+			this.mCancelled = cancelled;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if(this.mCancelled.getAsBoolean()){
+				return;
+			}
+			if(this.mEndRow - this.mStartRow <= this.mBandHeight){
+				this.mConverter.fillSLBand(this.mHue, this.mData, this.mOffset, this.mStride, this.mWidth, this.mHeight, this.mStartRow, this.mEndRow);
+				return;
+			}
+			int middle = (this.mStartRow + this.mEndRow) >>> 1;
+			invokeAll(new SLBandTask(this.mConverter, this.mHue, this.mData, this.mOffset, this.mStride, this.mWidth, this.mHeight, this.mStartRow, middle, this.mBandHeight, this.mCancelled),
+						new SLBandTask(this.mConverter, this.mHue, this.mData, this.mOffset, this.mStride, this.mWidth, this.mHeight, middle, this.mEndRow, this.mBandHeight, this.mCancelled));
+			return;
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package main.gui.custom;
+
+import java.awt.Color;
+
+/**
+ * Immutable colors and proportions used by HSLPanelRasterEngine.  Unlike HSLPanelComponent, the default
+ * style does not depend on the look and feel, so it can be used without touching UIManager.
+ */
+public final class HSLPanelStyle
+{
+	public static final float DEFAULT_RING_THICKNESS = 0.11F;
+	public static final HSLPanelStyle DEFAULT = new HSLPanelStyle(new Color(238, 238, 238), Color.WHITE, Color.BLACK, DEFAULT_RING_THICKNESS);
+	
+	private final Color mBackground;
+	private final Color mCaretHighlight;
+	private final Color mCaretShadow;
+	private final float mRingThickness;
+	
+	/**
+	 * The ring thickness is a fraction of the image width.  Colors are used without their alpha.
+	 */
+	public HSLPanelStyle(Color background, Color caretHighlight, Color caretShadow, float ringThickness)
+	{
+		if(background == null || caretHighlight == null || caretShadow == null){
+			throw new IllegalArgumentException("Expecting background, caret highlight and caret shadow colors.");
+		}
+		if(ringThickness < 0F || ringThickness > 1F){
+			throw new IllegalArgumentException("Expecting normalized value.  Received: " + ringThickness);
+		}
+		this.mBackground = opaque(background);
+		this.mCaretHighlight = opaque(caretHighlight);
+		this.mCaretShadow = opaque(caretShadow);
+		this.mRingThickness = ringThickness;
+	}
+	
+	public HSLPanelStyle withBackground(Color background)
+	{
+		return new HSLPanelStyle(background, this.mCaretHighlight, this.mCaretShadow, this.mRingThickness);
+	}
+	
+	public HSLPanelStyle withCaretHighlight(Color caretHighlight)
+	{
+		return new HSLPanelStyle(this.mBackground, caretHighlight, this.mCaretShadow, this.mRingThickness);
+	}
+	
+	public HSLPanelStyle withCaretShadow(Color caretShadow)
+	{
+		return new HSLPanelStyle(this.mBackground, this.mCaretHighlight, caretShadow, this.mRingThickness);
+	}
+	
+	public HSLPanelStyle withRingThickness(float ringThickness)
+	{
+		return new HSLPanelStyle(this.mBackground, this.mCaretHighlight, this.mCaretShadow, ringThickness);
+	}
+	
+	public Color getBackground()
+	{
+		return this.mBackground;
+	}
+	
+	public Color getCaretHighlight()
+	{
+		return this.mCaretHighlight;
+	}
+	
+	public Color getCaretShadow()
+	{
+		return this.mCaretShadow;
+	}
+	
+	public float getRingThickness()
+	{
+		return this.mRingThickness;
+	}
+	
+	private static Color opaque(Color color)
+	{
+		return color.getAlpha() == 255 ? color : new Color(color.getRGB() & 0xFFFFFF);
+	}
+	
+	@Override
+	public boolean equals(Object other)
+	{
+		if(!(other instanceof HSLPanelStyle)){
+			return false;
+		}
+		HSLPanelStyle style = (HSLPanelStyle)other;
+		return this.mBackground.equals(style.mBackground) && this.mCaretHighlight.equals(style.mCaretHighlight) &&
+				this.mCaretShadow.equals(style.mCaretShadow) && Float.compare(this.mRingThickness, style.mRingThickness) == 0;
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		int hash = this.mBackground.hashCode();
+		hash = (hash * 31) + this.mCaretHighlight.hashCode();
+		hash = (hash * 31) + this.mCaretShadow.hashCode();
+		return (hash * 31) + Float.floatToIntBits(this.mRingThickness);
+	}
+}
@@ -0,0 +1,113 @@
+package main.gui.custom;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Lane-wise version of HSLPanelModel.fillSLRow built on the incubating Vector API.
+ * 
+ * Along a row of the SL graph only the saturation changes, so the hue branch taken by
+ * hueToRGB is the same for every lane and only the gray (s == 0) case needs a mask.  The
+ * arithmetic is carried out in the same order as the scalar path, and rounding reproduces
+ * Math.round, so both paths produce identical pixels.
+ * 
+ * This class is only loaded by HSLPanelModel when the jdk.incubator.vector module is present
+ * (run with --add-modules jdk.incubator.vector).
+ */
+final class HSLPanelVectorKernel implements HSLPanelModel.SLRowKernel
+{
+	private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+	private static final float[] LANE_INDEXES = createLaneIndexes();
+	private static final float ROUNDING_BIAS = 8388608.0F;
+	private static final int ROUNDING_BIAS_BITS = Float.floatToRawIntBits(ROUNDING_BIAS);
+	
+	private static float[] createLaneIndexes()
+	{
+		float[] indexes = new float[FLOATS.length()];
+		for(int i = 0; i < indexes.length; i++)
+		{
+			indexes[i] = i;
+		}
+		return indexes;
+	}
+	
+	@Override
+	public void fillSLRow(HSLPanelModel model, float h, float l, int[] dest, int offset, int width)
+	{
+		int length = FLOATS.length();
+		int bound = FLOATS.loopBound(width);
+		FloatVector lanes = FloatVector.fromArray(FLOATS, LANE_INDEXES, 0);
+		FloatVector lum = FloatVector.broadcast(FLOATS, l);
+		float redT = this.wrap(h + 1.0F/3.0F);
+		float greenT = this.wrap(h);
+		float blueT = this.wrap(h - 1.0F/3.0F);
+		
+		int x = 0;
+		for(; x < bound; x += length)
+		{
+			FloatVector s = lanes.add((float)x).div((float)width);
+			FloatVector q = l < 0.5F ? s.add(1.0F).mul(l) : lum.add(s).sub(s.mul(l));
+			FloatVector p = FloatVector.broadcast(FLOATS, 2 * l).sub(q);
+			VectorMask<Float> gray = s.compare(VectorOperators.EQ, 0.0F);
+			
+			IntVector r = this.toChannel(this.hueToRGB(p, q, redT).blend(lum, gray));
+			IntVector g = this.toChannel(this.hueToRGB(p, q, greenT).blend(lum, gray));
+			IntVector b = this.toChannel(this.hueToRGB(p, q, blueT).blend(lum, gray));
+			
+			r.lanewise(VectorOperators.LSHL, 16)
+				.or(g.lanewise(VectorOperators.LSHL, 8))
+				.or(b)
+				.or(0xFF000000)
+				.intoArray(dest, offset + x);
+		}
+		for(; x < width; x++)
+		{
+			dest[offset + x] = model.getPackedRGBfromHSL(h, x / (float)width, l);
+		}
+		return;
+	}
+	
+	private float wrap(float t)
+	{
+		if(t < 0.0F){
+			t += 1.0F;
+		}
+		if(t > 1.0F){
+			t -= 1.0F;
+		}
+		return t;
+	}
+	
+	/**
+	 * Mirrors HSLPanelModel.hueToRGB for an already wrapped t, which is uniform across the lanes.
+	 */
+	private FloatVector hueToRGB(FloatVector p, FloatVector q, float t)
+	{
+		if(t < 1.0F/6.0F){
+			return p.add(q.sub(p).mul(6.0F).mul(t));
+		}
+		if(t < 1.0F/2.0F){
+			return q;
+		}
+		if(t < 2.0F/3.0F){
+			return p.add(q.sub(p).mul(2.0F/3.0F - t).mul(6.0F));
+		}
+		return p;
+	}
+	
+	/**
+	 * Scales to 0..255, clamps and rounds half up like Math.round.  Adding 2^23 rounds to the
+	 * nearest integer (ties to even) and leaves that integer in the low mantissa bits, which avoids
+	 * a float to int conversion; ties that went down are then bumped up.
+	 */
+	private IntVector toChannel(FloatVector value)
+	{
+		FloatVector clamped = value.mul(255.0F).max(0.0F).min(255.0F);
+		FloatVector rounded = clamped.add(ROUNDING_BIAS).sub(ROUNDING_BIAS);
+		VectorMask<Float> tie = clamped.sub(rounded).compare(VectorOperators.EQ, 0.5F);
+		return rounded.add(1.0F, tie).add(ROUNDING_BIAS).reinterpretAsInts().sub(ROUNDING_BIAS_BITS);
+	}
+}
@@ -0,0 +1,73 @@
+package main.gui.custom;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.Insets;
+import java.awt.LayoutManager;
+
+/**
+ * Gives every child of a container the largest square that fits inside the container's insets,
+ * centered, so a round graph such as HSLPanelComponent keeps its aspect ratio however the container
+ * is resized.
+ */
+public class SquareLayout implements LayoutManager
+{
+	@Override
+	public void addLayoutComponent(String name, Component comp)
+	{
+		return;
+	}
+	
+	@Override
+	public void removeLayoutComponent(Component comp)
+	{
+		return;
+	}
+	
+	@Override
+	public Dimension preferredLayoutSize(Container parent)
+	{
+		int side = 0;
+		for(Component child : parent.getComponents())
+		{
+			Dimension size = child.getPreferredSize();
+			side = Math.max(side, Math.max(size.width, size.height));
+		}
+		return this.withInsets(parent, side);
+	}
+	
+	@Override
+	public Dimension minimumLayoutSize(Container parent)
+	{
+		int side = 0;
+		for(Component child : parent.getComponents())
+		{
+			Dimension size = child.getMinimumSize();
+			side = Math.max(side, Math.max(size.width, size.height));
+		}
+		return this.withInsets(parent, side);
+	}
+	
+	@Override
+	public void layoutContainer(Container parent)
+	{
+		Insets insets = parent.getInsets();
+		int width = parent.getWidth() - insets.left - insets.right;
+		int height = parent.getHeight() - insets.top - insets.bottom;
+		int side = Math.max(0, Math.min(width, height));
+		int x = insets.left + ((width - side) / 2);
+		int y = insets.top + ((height - side) / 2);
+		for(Component child : parent.getComponents())
+		{
+			child.setBounds(x, y, side, side);
+		}
+		return;
+	}
+	
+	private Dimension withInsets(Container parent, int side)
+	{
+		Insets insets = parent.getInsets();
+		return new Dimension(side + insets.left + insets.right, side + insets.top + insets.bottom);
+	}
+}
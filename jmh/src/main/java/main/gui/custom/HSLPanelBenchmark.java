@@ -0,0 +1,237 @@
+package main.gui.custom;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.PaintContext;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks for the conversion and rasterization hot paths: single color conversions, full SL
+ * square renders, conical gradient tiles, whole ring layers, listener dispatch, and whole image
+ * adjustment.  Every benchmark returns or consumes what it computes, so none of the work can be
+ * removed as dead code.  Run them, with the bytes allocated per operation, with:
+ * 
+ *   ./gradlew :jmh:jmh --args='-prof gc'
+ * 
+ * A regular expression after the options selects benchmarks, for example --args='-prof gc slRender'.
+ * 
+ * slRender runs at every parallelism level so the speedup of the banded SL rasterization can be read
+ * against the number of cores; sizes below the component's parallel threshold stay on one thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class HSLPanelBenchmark
+{
+	@Benchmark
+	public int convertPacked(Conversion state)
+	{
+		int index = state.next();
+		return state.mModel.getPackedRGBfromHSL(index / 1024F, 0.75F, index / 2048F);
+	}
+	
+	@Benchmark
+	public Color convertColor(Conversion state)
+	{
+		int index = state.next();
+		return state.mModel.getRGBfromHSL(index / 1024F, 0.75F, index / 2048F);
+	}
+	
+	@Benchmark
+	public BufferedImage slRender(SLRender state)
+	{
+		// A new hue on every call so that the cached image is always regenerated.
+		state.mIndex = (state.mIndex + 1) % 360;
+		Graphics2D g2d = state.mTarget.createGraphics();
+		state.mComp.renderSLGraph(g2d, state.mIndex / 360F);
+		g2d.dispose();
+		return state.mTarget;
+	}
+	
+	@Benchmark
+	public void ringTile(RingTile state, Blackhole blackhole)
+	{
+		state.mIndex = (state.mIndex + 1) & 7;
+		PaintContext context = state.mGradient.createContext(ColorModel.getRGBdefault(), state.mBounds, state.mBounds, new AffineTransform(), state.mHints);
+		blackhole.consume(context.getRaster(state.mIndex * state.tile, state.mIndex * state.tile, state.tile, state.tile));
+		context.dispose();
+		return;
+	}
+	
+	@Benchmark
+	public BufferedImage ringLayer(RingLayer state)
+	{
+		Graphics2D g2d = state.mTarget.createGraphics();
+		g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		state.mEngine.renderRingLayer(g2d, state.size, state.size, HSLPanelStyle.DEFAULT);
+		g2d.dispose();
+		return state.mTarget;
+	}
+	
+	@Benchmark
+	public long dispatchHue(Dispatch state)
+	{
+		state.mIndex = (state.mIndex + 1) & 1023;
+		state.mComp.setHue(state.mIndex / 1024F);
+		return state.mSink;
+	}
+	
+	@Benchmark
+	public BufferedImage adjust(Adjust state)
+	{
+		state.mIndex = (state.mIndex + 1) & 1023;
+		state.mAdjuster.adjust(state.mSource, state.mTarget, state.mIndex / 1024F, -0.1F, 0.05F);
+		return state.mTarget;
+	}
+	
+	@State(Scope.Thread)
+	public static class Conversion
+	{
+		private final HSLPanelModel mModel = new HSLPanelModel();
+		private int mIndex = 0;
+		
+		private int next()
+		{
+			this.mIndex = (this.mIndex + 1) & 1023;
+			return this.mIndex;
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class SLRender
+	{
+		@Param({"128", "256", "512", "1024", "2048"})
+		public int size;
+		
+		@Param({"1", "2", "4", "8"})
+		public int parallelism;
+		
+		private HSLPanelComponent mComp = null;
+		private BufferedImage mTarget = null;
+		private int mIndex = 0;
+		
+		@Setup
+		public void setup()
+		{
+			this.mComp = new HSLPanelComponent();
+			this.mComp.setBounds(0, 0, this.size * 2, this.size * 2);
+			this.mComp.doLayout();
+			this.mComp.setRenderParallelism(this.parallelism);
+			this.mTarget = new BufferedImage(this.size * 2, this.size * 2, BufferedImage.TYPE_INT_RGB);
+			return;
+		}
+		
+		@TearDown
+		public void tearDown()
+		{
+			// Shuts down the pool the component created for this parallelism.
+			this.mComp.setRenderPool(null);
+			return;
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class RingTile
+	{
+		@Param({"32", "64", "128", "256"})
+		public int tile;
+		
+		private final Rectangle mBounds = new Rectangle(0, 0, 1024, 1024);
+		private final RenderingHints mHints = new RenderingHints(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		// The panel's own twelve stop hue ring, so each pixel searches the same stop count as a paint.
+		private final HSLPanelGradient mGradient = new HSLPanelGradient(new Point2D.Double(512, 512),
+					HSLPanelRasterEngine.CONE_FRACTIONS, HSLPanelRasterEngine.CONE_COLORS);
+		private int mIndex = 0;
+	}
+	
+	@State(Scope.Thread)
+	public static class RingLayer
+	{
+		@Param({"256", "512", "1024"})
+		public int size;
+		
+		private final HSLPanelRasterEngine mEngine = new HSLPanelRasterEngine();
+		private BufferedImage mTarget = null;
+		
+		@Setup
+		public void setup()
+		{
+			this.mTarget = new BufferedImage(this.size, this.size, BufferedImage.TYPE_INT_RGB);
+			return;
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class Dispatch
+	{
+		@Param({"1", "8", "64"})
+		public int listeners;
+		
+		private final HSLPanelComponent mComp = new HSLPanelComponent();
+		private long mSink = 0L;
+		private int mIndex = 0;
+		
+		@Setup
+		public void setup()
+		{
+			for(int i = 0; i < this.listeners; i++)
+			{
+				this.mComp.addChangeListener(new HSLPanelListener()
+				{
+					@Override
+					public void hueChanged(float value)
+					{
+						mSink += Float.floatToIntBits(value);
+						return;
+					}
+					
+					@Override
+					public void saturationChanged(float value)
+					{
+						mSink += Float.floatToIntBits(value);
+						return;
+					}
+					
+					@Override
+					public void luminanceChanged(float value)
+					{
+						mSink += Float.floatToIntBits(value);
+						return;
+					}
+				});
+			}
+			return;
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class Adjust
+	{
+		private final HSLPanelImageAdjuster mAdjuster = new HSLPanelImageAdjuster();
+		private final BufferedImage mSource = new HSLPanelRasterEngine().render(1024, 1024, 0.3F, 0.6F, 0.5F, HSLPanelStyle.DEFAULT);
+		private final BufferedImage mTarget = new BufferedImage(1024, 1024, BufferedImage.TYPE_INT_RGB);
+		private int mIndex = 0;
+	}
+}
@@ -0,0 +1,90 @@
+package main.gui.custom;
+
+import java.awt.Color;
+import java.util.Locale;
+
+/**
+ * Exhaustive round-trip check of the RGB to HSL conversion.
+ * 
+ * Converts every color of the 24-bit RGB cube to HSL and back, through the bulk and single value
+ * forms of HSLPanelModel and through HSLPanelComponent.setColor and getColor, and expects the
+ * original color each time.  Any mismatch is reported and makes the process exit with status 1.
+ * 
+ *   java -Djava.awt.headless=true main.gui.custom.HSLPanelConversionCheck
+ */
+public class HSLPanelConversionCheck
+{
+	private static final int COLORS = 1 << 24;
+	private static final int CHUNK = 4096;
+	private static final int MAX_REPORTED = 10;
+	
+	private final HSLPanelModel mModel = new HSLPanelModel();
+	private int mFailures = 0;
+	
+	public static void main(String[] args)
+	{
+		System.setProperty("java.awt.headless", "true");
+		HSLPanelConversionCheck check = new HSLPanelConversionCheck();
+		check.checkBulk();
+		check.checkSingle();
+		check.checkComponent();
+		System.out.println(check.mFailures == 0 ? "All " + COLORS + " colors round-trip." : check.mFailures + " failure(s).");
+		System.exit(check.mFailures == 0 ? 0 : 1);
+		return;
+	}
+	
+	private void checkBulk()
+	{
+		int[] rgb = new int[CHUNK];
+		float[] hsl = new float[CHUNK * 3];
+		int[] back = new int[CHUNK];
+		for(int start = 0; start < COLORS; start += CHUNK)
+		{
+			for(int i = 0; i < CHUNK; i++)
+			{
+				rgb[i] = start + i;
+			}
+			this.mModel.getHSLfromPackedRGB(rgb, 0, hsl, 0, CHUNK);
+			this.mModel.getPackedRGBfromHSL(hsl, 0, back, 0, CHUNK);
+			for(int i = 0; i < CHUNK; i++)
+			{
+				this.expect("bulk", rgb[i], back[i]);
+			}
+		}
+		return;
+	}
+	
+	private void checkSingle()
+	{
+		float[] hsl = new float[3];
+		for(int rgb = 0; rgb < COLORS; rgb++)
+		{
+			this.mModel.getHSLfromPackedRGB(rgb, hsl, 0);
+			this.expect("single", rgb, this.mModel.getPackedRGBfromHSL(hsl[0], hsl[1], hsl[2]));
+		}
+		return;
+	}
+	
+	private void checkComponent()
+	{
+		HSLPanelComponent comp = new HSLPanelComponent();
+		for(int rgb = 0; rgb < COLORS; rgb++)
+		{
+			comp.setColor(new Color(rgb));
+			this.expect("setColor", rgb, comp.getColor().getRGB());
+		}
+		return;
+	}
+	
+	private void expect(String path, int expected, int actual)
+	{
+		if((actual & 0xFFFFFF) == expected){
+			return;
+		}
+		if(this.mFailures < MAX_REPORTED){
+			System.out.println(String.format(Locale.ROOT, "%-8s #%06X came back as #%06X", path, expected, actual & 0xFFFFFF));
+		}
+		this.mFailures++;
+		return;
+	}
+}
@@ -0,0 +1,191 @@
+package main.gui.custom;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Headless render regression check for HSLPanel.
+ * 
+ * Renders the panel into a BufferedImage for every combination of SIZES, HUES and RING_THICKNESSES
+ * and compares each image against the golden PNG of the same name, allowing up to the given
+ * difference per color channel.  It also times the first paint of each configuration, which builds
+ * every cached layer, and the average of the repaints that follow.  The times are only checked
+ * against budgets given with -coldBudget and -warmBudget, since they depend on the machine.  Any
+ * pixel or time regression is reported and makes the process exit with status 1.
+ * 
+ *   java -Djava.awt.headless=true main.gui.custom.HSLPanelRenderCheck goldenDir [-update]
+ *       [-tolerance levels] [-coldBudget ms] [-warmBudget ms]
+ * 
+ * With -update the golden images are (re)written from the current rendering instead; run it from a
+ * known good revision.  Mismatching renders are saved next to their golden image as *.actual.png.
+ */
+public class HSLPanelRenderCheck
+{
+	private static final int[] SIZES = new int[]{64, 200, 512};
+	private static final float[] HUES = new float[]{0.0F, 0.33F, 0.75F};
+	private static final float[] RING_THICKNESSES = new float[]{0.05F, 0.11F, 0.2F};
+	private static final Color BACKGROUND = new Color(0xEEEEEE);
+	private static final int WARM_FRAMES = 10;
+	
+	private File mGoldenDir = null;
+	private boolean mUpdate = false;
+	private int mTolerance = 1;
+	private double mColdBudget = Double.POSITIVE_INFINITY;
+	private double mWarmBudget = Double.POSITIVE_INFINITY;
+	private int mFailures = 0;
+	
+	public static void main(String[] args) throws IOException
+	{
+		System.setProperty("java.awt.headless", "true");
+		HSLPanelRenderCheck check = new HSLPanelRenderCheck();
+		for(int i = 0; i < args.length; i++)
+		{
+			if(args[i].equals("-update")){
+				check.mUpdate = true;
+			}else if(args[i].equals("-tolerance") && i + 1 < args.length){
+				check.mTolerance = Integer.parseInt(args[++i]);
+			}else if(args[i].equals("-coldBudget") && i + 1 < args.length){
+				check.mColdBudget = Double.parseDouble(args[++i]);
+			}else if(args[i].equals("-warmBudget") && i + 1 < args.length){
+				check.mWarmBudget = Double.parseDouble(args[++i]);
+			}else{
+				check.mGoldenDir = new File(args[i]);
+			}
+		}
+		if(check.mGoldenDir == null){
+			System.err.println("Usage: HSLPanelRenderCheck goldenDir [-update] [-tolerance levels] [-coldBudget ms] [-warmBudget ms]");
+			System.exit(2);
+		}
+		check.run();
+		System.exit(check.mFailures == 0 ? 0 : 1);
+		return;
+	}
+	
+	private void run() throws IOException
+	{
+		if(this.mUpdate && !this.mGoldenDir.isDirectory() && !this.mGoldenDir.mkdirs()){
+			throw new IOException("Cannot create " + this.mGoldenDir);
+		}
+		for(int size : SIZES)
+		{
+			for(float hue : HUES)
+			{
+				for(float thickness : RING_THICKNESSES)
+				{
+					this.check(size, hue, thickness);
+				}
+			}
+		}
+		System.out.println(this.mFailures == 0 ? "All renders match." : this.mFailures + " failure(s).");
+		return;
+	}
+	
+	private void check(int size, float hue, float thickness) throws IOException
+	{
+		String name = String.format(Locale.ROOT, "hsl_%d_%.2f_%.2f", size, hue, thickness);
+		HSLPanel panel = new HSLPanel();
+		panel.setBackground(BACKGROUND);
+		panel.setHueRingThicknessFactor(thickness);
+		panel.setHue(hue);
+		panel.setSaturation(0.6F);
+		panel.setLuminance(0.4F);
+		panel.setSize(size, size);
+		this.layout(panel);
+		
+		BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+		long start = System.nanoTime();
+		this.paint(panel, image);
+		double cold = (System.nanoTime() - start) / 1000000.0;
+		start = System.nanoTime();
+		for(int i = 0; i < WARM_FRAMES; i++)
+		{
+			this.paint(panel, image);
+		}
+		double warm = (System.nanoTime() - start) / 1000000.0 / WARM_FRAMES;
+		
+		String result = "ok";
+		File golden = new File(this.mGoldenDir, name + ".png");
+		if(this.mUpdate){
+			ImageIO.write(image, "png", golden);
+			result = "written";
+		}else if(!golden.isFile()){
+			result = "missing golden image";
+		}else{
+			int mismatches = this.compare(ImageIO.read(golden), image);
+			if(mismatches != 0){
+				ImageIO.write(image, "png", new File(this.mGoldenDir, name + ".actual.png"));
+				result = mismatches + " pixel(s) differ by more than " + this.mTolerance;
+			}
+		}
+		if(cold > this.mColdBudget){
+			result += String.format(Locale.ROOT, ", first frame over %.1f ms budget", this.mColdBudget);
+		}
+		if(warm > this.mWarmBudget){
+			result += String.format(Locale.ROOT, ", repaint over %.1f ms budget", this.mWarmBudget);
+		}
+		if(!result.equals("ok") && !result.equals("written")){
+			this.mFailures++;
+		}
+		System.out.println(String.format(Locale.ROOT, "%-24s first %8.2f ms  repaint %8.2f ms  %s", name, cold, warm, result));
+		return;
+	}
+	
+	/**
+	 * Lays out the component tree directly, since validate does nothing without a native peer.
+	 */
+	private void layout(Container container)
+	{
+		container.doLayout();
+		for(Component child : container.getComponents())
+		{
+			if(child instanceof Container){
+				this.layout((Container)child);
+			}
+		}
+		return;
+	}
+	
+	private void paint(HSLPanel panel, BufferedImage image)
+	{
+		Graphics2D g2d = image.createGraphics();
+		panel.paint(g2d);
+		g2d.dispose();
+		return;
+	}
+	
+	/**
+	 * Returns the number of pixels where any channel differs by more than the tolerance, or the
+	 * pixel count of the larger image when the sizes differ.
+	 */
+	private int compare(BufferedImage expected, BufferedImage actual)
+	{
+		if(expected.getWidth() != actual.getWidth() || expected.getHeight() != actual.getHeight()){
+			return Math.max(expected.getWidth() * expected.getHeight(), actual.getWidth() * actual.getHeight());
+		}
+		int mismatches = 0;
+		for(int y = 0; y < actual.getHeight(); y++)
+		{
+			for(int x = 0; x < actual.getWidth(); x++)
+			{
+				int a = expected.getRGB(x, y);
+				int b = actual.getRGB(x, y);
+				for(int shift = 0; shift <= 16; shift += 8)
+				{
+					if(Math.abs(((a >> shift) & 0xff) - ((b >> shift) & 0xff)) > this.mTolerance){
+						mismatches++;
+						break;
+					}
+				}
+			}
+		}
+		return mismatches;
+	}
+}